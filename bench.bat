@@ -0,0 +1,55 @@
+@echo off
+echo ========================================
+echo  MedCare Hospital Management System
+echo  Benchmarks
+echo ========================================
+echo.
+
+cd /d "%~dp0"
+
+:: Set Java path
+set JAVA_HOME=C:\Program Files\Java\jdk-23
+set JAVA_CMD=%JAVA_HOME%\bin\java
+set JAVAC_CMD=%JAVA_HOME%\bin\javac
+
+:: Check if Java exists
+if not exist "%JAVAC_CMD%.exe" (
+    set JAVA_HOME=C:\Program Files\Java\jdk-21
+    set JAVA_CMD=%JAVA_HOME%\bin\java
+    set JAVAC_CMD=%JAVA_HOME%\bin\javac
+)
+
+if not exist "%JAVAC_CMD%.exe" (
+    set JAVA_HOME=C:\Program Files\Java\jdk-17
+    set JAVA_CMD=%JAVA_HOME%\bin\java
+    set JAVAC_CMD=%JAVA_HOME%\bin\javac
+)
+
+if not exist "%JAVAC_CMD%.exe" (
+    echo ERROR: Java JDK not found!
+    pause
+    exit /b 1
+)
+
+:: Create output directory
+if not exist "out" mkdir out
+
+echo Compiling...
+"%JAVAC_CMD%" -encoding UTF-8 -d out -sourcepath src bench\*.java
+
+if %ERRORLEVEL% NEQ 0 (
+    echo Compilation failed!
+    pause
+    exit /b 1
+)
+
+:: The benchmarks write their own data files, away from the application's
+if exist "bench-run" rmdir /s /q bench-run
+mkdir bench-run
+cd bench-run
+
+echo Running benchmarks...
+"%JAVA_CMD%" -Xmx4g -cp ..\out Bench %*
+cd ..
+rmdir /s /q bench-run
+pause
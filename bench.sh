@@ -0,0 +1,41 @@
+#!/bin/sh
+# MedCare Hospital Management System - benchmarks
+#
+# Usage: ./bench.sh [ManagerBenchmarks|BookingContention|ManagerStress|IdGeneration] [options]
+# e.g.   ./bench.sh sizes=1000,100000 filter=Billing forks=3
+#        ./bench.sh ManagerStress
+
+cd "$(dirname "$0")" || exit 1
+
+if [ -n "$JAVA_HOME" ]; then
+    JAVA_CMD="$JAVA_HOME/bin/java"
+    JAVAC_CMD="$JAVA_HOME/bin/javac"
+else
+    JAVA_CMD=java
+    JAVAC_CMD=javac
+fi
+
+if ! command -v "$JAVAC_CMD" > /dev/null 2>&1; then
+    echo "ERROR: Java JDK not found!" >&2
+    exit 1
+fi
+
+mkdir -p out
+
+echo "Compiling..."
+if ! "$JAVAC_CMD" -encoding UTF-8 -d out -sourcepath src bench/*.java; then
+    echo "Compilation failed!" >&2
+    exit 1
+fi
+
+# The benchmarks write their own data files, away from the application's
+rm -rf bench-run
+mkdir bench-run
+cd bench-run || exit 1
+
+echo "Running benchmarks..."
+"$JAVA_CMD" -Xmx4g -cp ../out Bench "$@"
+status=$?
+cd ..
+rm -rf bench-run
+exit $status
@@ -0,0 +1,42 @@
+import java.util.Arrays;
+
+/**
+ * Entry point of bench.sh and bench.bat: runs one of the programs in bench/
+ * by name, ManagerBenchmarks if no name is given, and passes the remaining
+ * arguments through.
+ *
+ *   ManagerBenchmarks   manager and file benchmarks over several dataset sizes
+ *   BookingContention   booking throughput, global lock against doctor stripes
+ *   ManagerStress       concurrent writers and readers, checked for lost updates
+ *   IdGeneration        ID generation throughput and allocation
+ */
+public class Bench {
+
+    public static void main(String[] args) throws Exception {
+        String program = "ManagerBenchmarks";
+        String[] rest = args;
+        if (args.length > 0 && !args[0].contains("=")) {
+            program = args[0];
+            rest = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        switch (program) {
+            case "ManagerBenchmarks":
+                ManagerBenchmarks.main(rest);
+                break;
+            case "BookingContention":
+                BookingContention.main(rest);
+                break;
+            case "ManagerStress":
+                ManagerStress.main(rest);
+                break;
+            case "IdGeneration":
+                IdGeneration.main(rest);
+                break;
+            default:
+                System.err.println("Unknown program: " + program
+                        + " (ManagerBenchmarks, BookingContention, ManagerStress or IdGeneration)");
+                System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import managers.AppointmentManager;
+import models.Appointment;
+import utils.FileHandler;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention benchmark for appointment booking: 64 concurrent bookers spread
+ * over 200 doctors, comparing one global booking lock against the per-doctor
+ * stripes of AppointmentManager.bookAppointment.
+ *
+ * Bookings are persisted like in the application, so run it from an empty
+ * directory:
+ *
+ *   javac -d out -sourcepath src bench/BookingContention.java
+ *   mkdir bench-run && cd bench-run && java -cp ../out BookingContention
+ */
+public class BookingContention {
+
+    private static final int BOOKERS = 64;
+    private static final int DOCTORS = 200;
+    private static final int BOOKINGS_PER_BOOKER = 2_000;
+    private static final int ROUNDS = 3;
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    /**
+     * One way of making check-then-insert atomic
+     */
+    private interface Booker {
+        boolean book(AppointmentManager manager, Appointment appointment);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (new File("data").exists()) {
+            System.err.println("Run from an empty directory: ./data already exists");
+            System.exit(1);
+        }
+
+        Object globalLock = new Object();
+        // The stripe taken inside is never contended under the global lock
+        Booker global = (manager, appointment) -> {
+            synchronized (globalLock) {
+                return manager.bookAppointment(appointment) != null;
+            }
+        };
+        Booker striped = (manager, appointment) -> manager.bookAppointment(appointment) != null;
+
+        System.out.printf("%d bookers, %d doctors, %d bookings each%n", BOOKERS, DOCTORS, BOOKINGS_PER_BOOKER);
+        for (int round = 1; round <= ROUNDS; round++) {
+            run("global lock   ", global, round);
+            run("doctor stripes", striped, round);
+        }
+        FileHandler.clearAllData();
+    }
+
+    private static void run(String label, Booker booker, int round) throws Exception {
+        FileHandler.clearAllData();
+        AppointmentManager manager = new AppointmentManager();
+        AtomicInteger booked = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(BOOKERS);
+
+        for (int b = 0; b < BOOKERS; b++) {
+            long seed = round * 1000L + b;
+            pool.execute(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < BOOKINGS_PER_BOOKER; i++) {
+                    Appointment appointment = new Appointment();
+                    appointment.setDoctorId(String.format("DOC-%03d", random.nextInt(DOCTORS)));
+                    // 15-minute grid over 60 days, so a good share of attempts conflict
+                    appointment.setDateTime(START.plusMinutes(15L * random.nextInt(60 * 24 * 4)));
+                    if (booker.book(manager, appointment)) {
+                        booked.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        FileHandler.flush().join();
+
+        int attempts = BOOKERS * BOOKINGS_PER_BOOKER;
+        System.out.printf("round %d  %s  %7.0f ms  %9.0f attempts/s  %d booked, %d conflicts%s%n",
+                round, label, elapsed / 1e6, attempts / (elapsed / 1e9), booked.get(),
+                attempts - booked.get(), verify(manager) ? "" : "  DOUBLE-BOOKED");
+    }
+
+    /**
+     * Check that no two scheduled appointments of a doctor conflict
+     */
+    private static boolean verify(AppointmentManager manager) {
+        for (int d = 0; d < DOCTORS; d++) {
+            LocalDateTime previous = null;
+            for (Appointment appointment : manager.getAppointmentsByDoctor(String.format("DOC-%03d", d))) {
+                if (previous != null && appointment.getDateTime().isBefore(previous.plusMinutes(30))) {
+                    return false;
+                }
+                previous = appointment.getDateTime();
+            }
+        }
+        return true;
+    }
+}
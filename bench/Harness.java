@@ -0,0 +1,245 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal measurement loop for the benchmark mains.
+ *
+ * Fast operations run for a warmup period, then for a number of measurement
+ * iterations of fixed length. Within an iteration they run in batches whose
+ * size grows until a batch takes at least a millisecond, so the clock is read
+ * rarely. Slow operations (loading or saving whole files) run a fixed number
+ * of times after one warmup call, each call being one sample. Every result is
+ * folded into a checksum so the JIT cannot discard the work.
+ *
+ * Results are reported as the mean time per operation with the standard
+ * deviation and range of the samples. With forks, the benchmark main is run
+ * again in fresh JVMs, one after the other, and the samples of all forks are
+ * pooled: JIT and GC decisions that differ from run to run then show up in
+ * the spread instead of passing for a change.
+ */
+final class Harness {
+
+    // Marks the lines a forked JVM prints to hand its samples to the parent
+    private static final String SAMPLES = "#samples\t";
+
+    /**
+     * Samples of one benchmark at one dataset size
+     */
+    private static final class Result {
+        private final String group;
+        private final String benchmark;
+        private final List<Double> nanosPerOp = new ArrayList<>();
+
+        Result(String group, String benchmark) {
+            this.group = group;
+            this.benchmark = benchmark;
+        }
+    }
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final int iterations;
+    private final boolean forked;
+    private final Map<String, Result> results = new LinkedHashMap<>();
+    private long sink;
+
+    /**
+     * Create a harness
+     *
+     * @param warmupMillis  Time spent running an operation before measuring it
+     * @param measureMillis Length of one measurement iteration
+     * @param iterations    Measurement iterations per operation
+     * @param forked        Whether this JVM is a fork that hands its samples
+     *                      to the parent
+     */
+    Harness(long warmupMillis, long measureMillis, int iterations, boolean forked) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+        this.iterations = iterations;
+        this.forked = forked;
+    }
+
+    /**
+     * Measure a fast operation and print its average time
+     *
+     * @param group     Label of the dataset
+     * @param benchmark Name of the operation
+     * @param op        Operation; its result goes into the checksum
+     */
+    void time(String group, String benchmark, LongSupplier op) {
+        int batch = 1;
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) {
+            long begin = System.nanoTime();
+            runBatch(op, batch);
+            if (System.nanoTime() - begin < 1_000_000L && batch < (1 << 24)) {
+                batch *= 2;
+            }
+        }
+
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long ops = 0;
+            long begin = System.nanoTime();
+            long elapsed;
+            do {
+                runBatch(op, batch);
+                ops += batch;
+                elapsed = System.nanoTime() - begin;
+            } while (elapsed < measureNanos);
+            samples[i] = (double) elapsed / ops;
+        }
+        record(group, benchmark, samples);
+    }
+
+    /**
+     * Measure a slow operation over a fixed number of calls
+     *
+     * @param group      Label of the dataset
+     * @param benchmark  Name of the operation
+     * @param iterations Number of measured calls
+     * @param op         Operation; its result goes into the checksum
+     */
+    void repeat(String group, String benchmark, int iterations, LongSupplier op) {
+        sink += op.getAsLong();
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long begin = System.nanoTime();
+            sink += op.getAsLong();
+            samples[i] = System.nanoTime() - begin;
+        }
+        record(group, benchmark, samples);
+    }
+
+    /**
+     * Run a benchmark main in fresh JVMs, one after the other, with the JVM
+     * options and class path of this one, and pool their samples
+     *
+     * @param main  Benchmark main class
+     * @param args  Its arguments; each fork also gets fork=n
+     * @param forks Number of JVMs to run
+     * @return true if every fork completed
+     */
+    boolean fork(Class<?> main, String[] args, int forks) throws IOException, InterruptedException {
+        for (int fork = 1; fork <= forks; fork++) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(main.getName());
+            command.addAll(List.of(args));
+            command.add("fork=" + fork);
+
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith(SAMPLES)) {
+                        String[] fields = line.split("\t");
+                        Result result = result(fields[1], fields[2]);
+                        for (String sample : fields[3].split(" ")) {
+                            result.nanosPerOp.add(Double.parseDouble(sample));
+                        }
+                    } else {
+                        System.out.printf("[fork %d/%d] %s%n", fork, forks, line);
+                    }
+                }
+            }
+            if (process.waitFor() != 0) {
+                System.err.println("Fork " + fork + " failed with exit code " + process.exitValue());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Print every benchmark with the pooled samples of all forks
+     *
+     * @param forks Number of forks the samples came from
+     */
+    void printSummary(int forks) {
+        System.out.printf("==== samples of %d forks ====%n", forks);
+        for (Result result : results.values()) {
+            report(result);
+        }
+    }
+
+    /**
+     * Get the checksum of all results, to be printed at the end
+     *
+     * @return Checksum
+     */
+    long checksum() {
+        return sink;
+    }
+
+    private void runBatch(LongSupplier op, int batch) {
+        long local = 0;
+        for (int i = 0; i < batch; i++) {
+            local += op.getAsLong();
+        }
+        sink += local;
+    }
+
+    private Result result(String group, String benchmark) {
+        return results.computeIfAbsent(group + "\t" + benchmark, k -> new Result(group, benchmark));
+    }
+
+    private void record(String group, String benchmark, double[] samples) {
+        Result result = result(group, benchmark);
+        StringBuilder line = new StringBuilder(SAMPLES).append(group).append('\t').append(benchmark).append('\t');
+        for (int i = 0; i < samples.length; i++) {
+            result.nanosPerOp.add(samples[i]);
+            line.append(i == 0 ? "" : " ").append(samples[i]);
+        }
+        report(result);
+        if (forked) {
+            System.out.println(line);
+        }
+    }
+
+    private static void report(Result result) {
+        List<Double> samples = result.nanosPerOp;
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double sample : samples) {
+            sum += sample;
+            min = Math.min(min, sample);
+            max = Math.max(max, sample);
+        }
+        double mean = sum / samples.size();
+        double squares = 0;
+        for (double sample : samples) {
+            squares += (sample - mean) * (sample - mean);
+        }
+        double deviation = samples.size() > 1 ? Math.sqrt(squares / (samples.size() - 1)) : 0;
+
+        String unit;
+        double scale;
+        if (mean >= 1_000_000) {
+            unit = "ms/op";
+            scale = 1e6;
+        } else if (mean >= 1_000) {
+            unit = "us/op";
+            scale = 1e3;
+        } else {
+            unit = "ns/op";
+            scale = 1;
+        }
+        System.out.printf(Locale.ROOT, "%-6s %-42s %10.2f +- %8.2f %s  [%.2f .. %.2f]  n=%d%n",
+                result.group, result.benchmark, mean / scale, deviation / scale, unit,
+                min / scale, max / scale, samples.size());
+    }
+}
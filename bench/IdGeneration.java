@@ -0,0 +1,63 @@
+import utils.IDGenerator;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongFunction;
+
+/**
+ * Single-thread throughput and allocation of ID generation: the previous
+ * String.format based formatting next to IDGenerator, which also includes
+ * the persistent sequence.
+ *
+ * Sequences are persisted like in the application, so run it from an empty
+ * directory:
+ *
+ *   javac -d out -sourcepath src bench/IdGeneration.java
+ *   mkdir bench-run && cd bench-run && java -cp ../out IdGeneration
+ */
+public class IdGeneration {
+
+    private static final int IDS_PER_ROUND = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Keeps the JIT from discarding the generated IDs
+    private static long sink;
+
+    public static void main(String[] args) {
+        if (new File("data").exists()) {
+            System.err.println("Run from an empty directory: ./data already exists");
+            System.exit(1);
+        }
+
+        LongFunction<String> formatted = num ->
+                String.format("PAT-%s-%04d", LocalDate.now().format(DATE_FORMAT), num);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            run(round, "String.format          ", formatted);
+            run(round, "generatePatientId      ", num -> IDGenerator.generatePatientId());
+            run(round, "generateAppointmentId  ", num -> IDGenerator.generateAppointmentId());
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static void run(int round, String label, LongFunction<String> generator) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long begin = System.nanoTime();
+        for (int i = 0; i < IDS_PER_ROUND; i++) {
+            sink += generator.apply(i).length();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        System.out.printf("round %d  %s %6.2f M ids/s  %6.1f bytes/id%n", round, label,
+                IDS_PER_ROUND / (elapsed / 1e9) / 1e6, (double) allocated / IDS_PER_ROUND);
+    }
+}
@@ -0,0 +1,283 @@
+import managers.AppointmentManager;
+import managers.BillingManager;
+import managers.PatientManager;
+import managers.RoomManager;
+import models.Appointment;
+import models.Bill;
+import models.Patient;
+import models.Room;
+import utils.DatasetGenerator;
+import utils.FileHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of the manager hot paths and of FileHandler load/save at
+ * several dataset sizes, for numbers before and after a performance change.
+ *
+ * For every size the data files are regenerated by DatasetGenerator from a
+ * fixed seed and each manager is constructed from them like in the
+ * application, one manager at a time. Queries are drawn from the loaded
+ * data. Files are written to ./data, so run it from an empty directory,
+ * e.g. through bench.sh or bench.bat, or by hand:
+ *
+ *   javac -d out -sourcepath src bench/*.java
+ *   mkdir bench-run && cd bench-run && java -Xmx4g -cp ../out ManagerBenchmarks
+ *
+ * The benchmarks run in forked JVMs, one after the other, and the samples of
+ * all forks are reported together with their spread; forks=0 runs them in
+ * this JVM instead, for a quick look. Options, all optional:
+ *
+ *   sizes=1000,100000,1000000   dataset sizes (patients and appointments)
+ *   filter=Billing              run only benchmarks whose name contains this
+ *   warmup=1000 time=1000       warmup and iteration time per benchmark, ms
+ *   iterations=5 forks=2        measurement iterations per fork, forked JVMs
+ */
+public class ManagerBenchmarks {
+
+    private static final long SEED = 42;
+
+    // Number of queries prepared per benchmark, cycled through while measuring
+    private static final int QUERIES = 1024;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        String filter = "";
+        long warmup = 1000;
+        long time = 1000;
+        int iterations = 5;
+        int forks = 2;
+        int fork = 0;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "sizes":
+                    String[] parts = value.split(",");
+                    sizes = new int[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        sizes[i] = Integer.parseInt(parts[i].trim().replace("_", ""));
+                    }
+                    break;
+                case "filter":
+                    filter = value;
+                    break;
+                case "warmup":
+                    warmup = Long.parseLong(value);
+                    break;
+                case "time":
+                    time = Long.parseLong(value);
+                    break;
+                case "iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "forks":
+                    forks = Integer.parseInt(value);
+                    break;
+                case "fork":
+                    // Set by the parent JVM for each fork it starts
+                    fork = Integer.parseInt(value);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    System.exit(1);
+            }
+        }
+
+        Harness harness = new Harness(warmup, time, iterations, fork > 0);
+        if (fork == 0) {
+            if (new File("data").exists()) {
+                System.err.println("Run from an empty directory: ./data already exists");
+                System.exit(1);
+            }
+            if (forks > 0) {
+                boolean completed = harness.fork(ManagerBenchmarks.class, args, forks);
+                harness.printSummary(forks);
+                System.exit(completed ? 0 : 1);
+            }
+        }
+
+        for (int size : sizes) {
+            System.out.printf("---- %,d patients and appointments ----%n", size);
+            FileHandler.clearAllData();
+            generate(size);
+            new ManagerBenchmarks(harness, size, filter).run();
+        }
+        FileHandler.clearAllData();
+        System.out.println("(checksum " + harness.checksum() + ")");
+    }
+
+    // ==================== DATASET ====================
+
+    /**
+     * Write the data files for one dataset size
+     *
+     * @param size Number of patients and of appointments
+     */
+    private static void generate(int size) throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.setSeed(SEED);
+        generator.setPatientCount(size);
+        generator.setAppointmentCount(size);
+        generator.setDoctorCount(Math.max(10, size / 1000));
+        generator.setRoomCount(Math.max(100, size / 10));
+        generator.generate();
+        System.out.printf("%,d doctors, %,d rooms, %,d bills%n", generator.getDoctorCount(),
+                generator.getRoomCount(), generator.getBillCount());
+    }
+
+    /**
+     * Pick a half-hour slot in working hours within 30 days of today
+     */
+    private static LocalDateTime randomSlot(Random random, LocalDate today) {
+        return today.plusDays(random.nextInt(61) - 30).atTime(8, 0).plusMinutes(30L * random.nextInt(18));
+    }
+
+    // ==================== BENCHMARKS ====================
+
+    private final Harness harness;
+    private final int size;
+    private final String filter;
+    private final String group;
+
+    private ManagerBenchmarks(Harness harness, int size, String filter) {
+        this.harness = harness;
+        this.size = size;
+        this.filter = filter;
+        this.group = size >= 1_000_000 ? size / 1_000_000 + "M" : size >= 1_000 ? size / 1_000 + "k" : "" + size;
+    }
+
+    private boolean selected(String benchmark) {
+        return benchmark.contains(filter);
+    }
+
+    private void run() {
+        // Managers stay registered with FileHandler for compaction, so the
+        // file benchmarks go first, while nothing else is loaded
+        patientFiles();
+        billFiles();
+        patients();
+        appointments();
+        billing();
+        rooms();
+    }
+
+    private void patients() {
+        if (!selected("PatientManager")) {
+            return;
+        }
+        PatientManager manager = new PatientManager();
+        List<Patient> patients = manager.getAllPatients();
+        Random random = new Random(SEED);
+        String[] fullNames = new String[QUERIES];
+        String[] fragments = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = patients.get(random.nextInt(patients.size())).getName();
+            String last = name.substring(name.indexOf(' ') + 1);
+            fullNames[i] = name;
+            fragments[i] = last.substring(0, Math.min(4, last.length())).toLowerCase();
+        }
+
+        int[] next = new int[1];
+        harness.time(group, "PatientManager.searchByName full", () ->
+                manager.searchByName(fullNames[next[0]++ & (QUERIES - 1)]).size());
+        harness.time(group, "PatientManager.searchByName top50", () ->
+                manager.searchByName(fragments[next[0]++ & (QUERIES - 1)], 50).size());
+        harness.time(group, "PatientManager.searchByRelevance top100", () ->
+                manager.searchByRelevance(fragments[next[0]++ & (QUERIES - 1)], 100).size());
+    }
+
+    private void appointments() {
+        if (!selected("AppointmentManager")) {
+            return;
+        }
+        AppointmentManager manager = new AppointmentManager();
+        List<Appointment> appointments = manager.getAllAppointments();
+        Random random = new Random(SEED);
+        LocalDate today = LocalDate.now();
+        String[] doctorIds = new String[QUERIES];
+        LocalDateTime[] slots = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            doctorIds[i] = appointments.get(random.nextInt(appointments.size())).getDoctorId();
+            slots[i] = randomSlot(random, today);
+        }
+
+        int[] next = new int[1];
+        harness.time(group, "AppointmentManager.hasConflict", () -> {
+            int i = next[0]++ & (QUERIES - 1);
+            return manager.hasConflict(doctorIds[i], slots[i]) ? 1 : 0;
+        });
+        harness.time(group, "AppointmentManager.getTodaysAppointments", () ->
+                manager.getTodaysAppointments().size());
+    }
+
+    private void billing() {
+        if (!selected("BillingManager")) {
+            return;
+        }
+        BillingManager manager = new BillingManager();
+        harness.time(group, "BillingManager.getPendingAmount", () ->
+                (long) manager.getPendingAmount());
+        harness.time(group, "BillingManager.getTodaysRevenue", () ->
+                (long) manager.getTodaysRevenue());
+    }
+
+    private void rooms() {
+        if (!selected("RoomManager")) {
+            return;
+        }
+        RoomManager manager = new RoomManager();
+        List<Room> available = manager.getAvailableRooms();
+        String[] rooms = new String[available.size()];
+        for (int i = 0; i < rooms.length; i++) {
+            rooms[i] = available.get(i).getRoomNumber();
+        }
+        int[] next = new int[1];
+        // A room has to be released and cleaned before it can be allocated again
+        harness.time(group, "RoomManager.allocateRoom+release", () -> {
+            String room = rooms[next[0]++ % rooms.length];
+            boolean allocated = manager.allocateRoom(room, "PAT-20240101-0000001", "Patient");
+            manager.releaseRoom(room);
+            manager.markRoomAvailable(room);
+            return allocated ? 1 : 0;
+        });
+        FileHandler.flush().join();
+    }
+
+    private int fileIterations() {
+        return size >= 1_000_000 ? 3 : size >= 100_000 ? 10 : 100;
+    }
+
+    private void patientFiles() {
+        if (!selected("FileHandler")) {
+            return;
+        }
+        int iterations = fileIterations();
+        List<Patient> patients = FileHandler.loadPatients();
+        harness.repeat(group, "FileHandler.loadPatients", iterations, () ->
+                FileHandler.loadPatients().size());
+        harness.repeat(group, "FileHandler.savePatients", iterations, () -> {
+            FileHandler.savePatients(patients);
+            return patients.size();
+        });
+    }
+
+    private void billFiles() {
+        if (!selected("FileHandler")) {
+            return;
+        }
+        int iterations = fileIterations();
+        List<Bill> bills = FileHandler.loadBills();
+        harness.repeat(group, "FileHandler.loadBills", iterations, () ->
+                FileHandler.loadBills().size());
+        harness.repeat(group, "FileHandler.saveBills", iterations, () -> {
+            FileHandler.saveBills(bills);
+            return bills.size();
+        });
+    }
+}
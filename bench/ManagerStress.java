@@ -0,0 +1,253 @@
+import managers.BillingManager;
+import managers.PatientManager;
+import models.Bill;
+import models.Bill.BillItem;
+import models.Patient;
+import utils.FileHandler;
+import utils.storage.CompactionPolicy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency stress test for the managers: writers and readers hammer
+ * PatientManager and BillingManager at the same time, with a compaction
+ * policy small enough that journals are compacted while they write. It then
+ * checks that no update was lost, both in memory and after reloadData()
+ * has read everything back from the snapshot and journal files.
+ *
+ * - Patients: every writer adds patients and then updates each one's phone.
+ *   All patients must exist with their updated phone.
+ * - Bills: writers add items with whole-rupee prices to shared bills. The
+ *   item count, the sum of the bill totals and the pending amount must all
+ *   match what the writers added.
+ *
+ * Readers check that the counts they see never go down. Data is persisted
+ * like in the application, so run it from an empty directory:
+ *
+ *   javac -d out -sourcepath src bench/ManagerStress.java
+ *   mkdir bench-run && cd bench-run && java -cp ../out ManagerStress
+ *
+ * Exits with status 1 if a check fails.
+ */
+public class ManagerStress {
+
+    private static final int WRITERS = 16;
+    private static final int READERS = 8;
+    private static final int PATIENTS_PER_WRITER = 2_000;
+    private static final int BILLS = 100;
+    private static final int ITEMS_PER_WRITER = 5_000;
+
+    // Compact every few hundred entries, so compaction races the writers
+    private static final CompactionPolicy AGGRESSIVE = new CompactionPolicy(64 * 1024, 500, 1000);
+
+    private static final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        if (new File("data").exists()) {
+            System.err.println("Run from an empty directory: ./data already exists");
+            System.exit(1);
+        }
+
+        FileHandler.clearAllData();
+        FileHandler.setCompactionPolicy(AGGRESSIVE);
+        System.out.printf("%d writers, %d readers, compaction %s%n", WRITERS, READERS, AGGRESSIVE);
+
+        patients();
+        bills();
+
+        FileHandler.clearAllData();
+        if (failures.isEmpty()) {
+            System.out.println("OK");
+            return;
+        }
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        System.exit(1);
+    }
+
+    // ==================== PATIENTS ====================
+
+    private static void patients() throws Exception {
+        PatientManager manager = new PatientManager();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger readerErrors = new AtomicInteger();
+
+        long elapsed = run(writer -> {
+            List<Patient> added = new ArrayList<>();
+            for (int i = 0; i < PATIENTS_PER_WRITER; i++) {
+                Patient patient = new Patient();
+                patient.setName("Stress " + writer + " " + i);
+                patient.setPhone("0");
+                manager.addPatient(patient);
+                added.add(patient);
+            }
+            for (Patient patient : added) {
+                patient.setPhone(expectedPhone(patient.getName()));
+                manager.updatePatient(patient);
+            }
+        }, () -> {
+            int seen = 0;
+            while (writing.get()) {
+                int count = manager.getAllPatients().size();
+                if (count < seen || manager.getTotalCount() < count) {
+                    readerErrors.incrementAndGet();
+                }
+                seen = count;
+                manager.searchByName("Stress 1", 50);
+            }
+        }, writing);
+
+        System.out.printf("patients  %7.0f ms  %d patients%n", elapsed / 1e6, manager.getTotalCount());
+        check("patient readers saw counts go down", readerErrors.get() == 0);
+        checkPatients("in memory", manager);
+        manager.reloadData();
+        checkPatients("after reload", manager);
+    }
+
+    private static void checkPatients(String when, PatientManager manager) {
+        List<Patient> all = manager.getAllPatients();
+        check("patients " + when + ": expected " + WRITERS * PATIENTS_PER_WRITER + ", found " + all.size(),
+                all.size() == WRITERS * PATIENTS_PER_WRITER);
+        int stale = 0;
+        for (Patient patient : all) {
+            if (!expectedPhone(patient.getName()).equals(patient.getPhone())) {
+                stale++;
+            }
+        }
+        check("patients " + when + ": " + stale + " lost phone updates", stale == 0);
+    }
+
+    private static String expectedPhone(String name) {
+        return "9" + Math.abs(name.hashCode());
+    }
+
+    // ==================== BILLS ====================
+
+    private static void bills() throws Exception {
+        BillingManager manager = new BillingManager();
+        List<String> billIds = new ArrayList<>();
+        for (int i = 0; i < BILLS; i++) {
+            billIds.add(manager.createBill("PAT-STRESS", "Stress Patient").getBillId());
+        }
+        AtomicLong expectedTotal = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger readerErrors = new AtomicInteger();
+
+        long elapsed = run(writer -> {
+            Random random = new Random(writer);
+            for (int i = 0; i < ITEMS_PER_WRITER; i++) {
+                int price = 1 + random.nextInt(100);
+                String billId = billIds.get(random.nextInt(BILLS));
+                if (manager.addItemToBill(billId, new BillItem("Stress item", "Other", 1, price))) {
+                    expectedTotal.addAndGet(price);
+                }
+            }
+        }, () -> {
+            double seen = 0;
+            while (writing.get()) {
+                double pending = manager.getPendingAmount();
+                if (pending < seen) {
+                    readerErrors.incrementAndGet();
+                }
+                seen = pending;
+                manager.getAllBills();
+            }
+        }, writing);
+
+        System.out.printf("bills     %7.0f ms  %d items, total %d%n", elapsed / 1e6,
+                WRITERS * ITEMS_PER_WRITER, expectedTotal.get());
+        check("bill readers saw the pending amount go down", readerErrors.get() == 0);
+        checkBills("in memory", manager, expectedTotal.get());
+        manager.reloadData();
+        checkBills("after reload", manager, expectedTotal.get());
+    }
+
+    private static void checkBills(String when, BillingManager manager, long expectedTotal) {
+        int items = 0;
+        double total = 0;
+        for (Bill bill : manager.getAllBills()) {
+            items += bill.getItems().size();
+            total += bill.getTotalAmount();
+        }
+        check("bills " + when + ": expected " + WRITERS * ITEMS_PER_WRITER + " items, found " + items,
+                items == WRITERS * ITEMS_PER_WRITER);
+        check("bills " + when + ": expected total " + expectedTotal + ", found " + total,
+                total == expectedTotal);
+        check("bills " + when + ": pending amount " + manager.getPendingAmount(),
+                manager.getPendingAmount() == expectedTotal);
+    }
+
+    // ==================== HARNESS ====================
+
+    /**
+     * Work done by one writer thread
+     */
+    private interface Writer {
+        void write(int writer) throws Exception;
+    }
+
+    /**
+     * Run the writers and readers together until all writers are done
+     *
+     * @return Elapsed nanoseconds, including waiting for the journal writes
+     */
+    private static long run(Writer writer, Runnable reader, AtomicBoolean writing) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        AtomicInteger writerErrors = new AtomicInteger();
+
+        for (int r = 0; r < READERS; r++) {
+            readers.execute(() -> {
+                try {
+                    start.await();
+                    reader.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            int id = w;
+            writers.execute(() -> {
+                try {
+                    start.await();
+                    writer.write(id);
+                } catch (Exception e) {
+                    writerErrors.incrementAndGet();
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        writers.shutdown();
+        writers.awaitTermination(10, TimeUnit.MINUTES);
+        writing.set(false);
+        readers.shutdown();
+        readers.awaitTermination(1, TimeUnit.MINUTES);
+        FileHandler.flush().join();
+        long elapsed = System.nanoTime() - begin;
+
+        check(writerErrors.get() + " writers failed", writerErrors.get() == 0);
+        return elapsed;
+    }
+
+    private static void check(String failure, boolean ok) {
+        if (!ok) {
+            failures.add(failure);
+        }
+    }
+}
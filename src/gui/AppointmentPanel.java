@@ -11,13 +11,14 @@ import models.Patient;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Appointment management panel.
@@ -35,7 +36,8 @@ public class AppointmentPanel extends JPanel {
     private DoctorManager doctorManager;
     private PatientManager patientManager;
     private StyledTable appointmentTable;
-    private DefaultTableModel tableModel;
+    private SnapshotTableModel<Appointment> tableModel;
+    private TableLoader<Appointment> loader;
 
     // For filtering appointments by doctor (when logged in as doctor)
     private String currentDoctorId = null;
@@ -115,12 +117,7 @@ public class AppointmentPanel extends JPanel {
         panel.setBackground(Color.WHITE);
 
         String[] columns = { "ID", "Patient", "Doctor", "Date", "Time", "Purpose", "Status" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new SnapshotTableModel<>(columns, this::cellValue);
 
         appointmentTable = new StyledTable(tableModel);
         appointmentTable.setColumnWidths(150, 150, 150, 100, 80, 150, 100);
@@ -153,48 +150,64 @@ public class AppointmentPanel extends JPanel {
     }
 
     private void loadAppointmentData() {
-        tableModel.setRowCount(0);
-        List<Appointment> appointments = appointmentManager.getAllAppointments();
-
-        for (Appointment apt : appointments) {
-            // Filter by doctor if currentDoctorId is set
-            if (currentDoctorId != null && !apt.getDoctorId().equals(currentDoctorId)) {
-                continue;
-            }
-
-            Object[] row = {
-                    apt.getAppointmentId(),
-                    apt.getPatientName(),
-                    apt.getDoctorName(),
-                    apt.getFormattedDate(),
-                    apt.getFormattedTime(),
-                    apt.getPurpose(),
-                    apt.getStatus().getDisplayName()
-            };
-            tableModel.addRow(row);
+        // Filter by doctor if currentDoctorId is set
+        String doctorId = currentDoctorId;
+        if (doctorId != null) {
+            load(() -> appointmentManager.getAppointmentsByDoctor(doctorId));
+        } else {
+            load(appointmentManager::getAllAppointments);
         }
     }
 
     private void loadTodaysAppointments() {
-        tableModel.setRowCount(0);
-        List<Appointment> appointments = appointmentManager.getTodaysAppointments();
+        // Filter by doctor if currentDoctorId is set
+        String doctorId = currentDoctorId;
+        load(appointmentManager::getTodaysAppointments,
+                doctorId == null ? null : apt -> doctorId.equals(apt.getDoctorId()));
+    }
 
-        for (Appointment apt : appointments) {
-            // Filter by doctor if currentDoctorId is set
-            if (currentDoctorId != null && !apt.getDoctorId().equals(currentDoctorId)) {
-                continue;
-            }
+    /**
+     * Load the table rows in the background, replacing any load in progress
+     */
+    private void load(Supplier<List<Appointment>> query) {
+        load(query, null);
+    }
+
+    private void load(Supplier<List<Appointment>> query, Predicate<Appointment> filter) {
+        cancelLoading();
+        loader = new TableLoader<>(tableModel, query, filter);
+        loader.execute();
+    }
+
+    /**
+     * Stop loading appointments, e.g. when the user navigates away
+     */
+    public void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(false);
+            loader = null;
+        }
+    }
 
-            Object[] row = {
-                    apt.getAppointmentId(),
-                    apt.getPatientName(),
-                    apt.getDoctorName(),
-                    apt.getFormattedDate(),
-                    apt.getFormattedTime(),
-                    apt.getPurpose(),
-                    apt.getStatus().getDisplayName()
-            };
-            tableModel.addRow(row);
+    /**
+     * Get a table cell, formatted when the row becomes visible
+     */
+    private Object cellValue(Appointment apt, int column) {
+        switch (column) {
+            case 0:
+                return apt.getAppointmentId();
+            case 1:
+                return apt.getPatientName();
+            case 2:
+                return apt.getDoctorName();
+            case 3:
+                return apt.getFormattedDate();
+            case 4:
+                return apt.getFormattedTime();
+            case 5:
+                return apt.getPurpose();
+            default:
+                return apt.getStatus().getDisplayName();
         }
     }
 
@@ -299,7 +312,14 @@ public class AppointmentPanel extends JPanel {
             appointment.setDateTime(dateTime);
             appointment.setPurpose(purposeField.getText().trim());
 
-            appointmentManager.scheduleAppointment(appointment);
+            if (appointmentManager.bookAppointment(appointment) == null) {
+                LocalDateTime nextFree = appointmentManager.findNextFreeSlot(doctor.getDoctorId(), dateTime);
+                JOptionPane.showMessageDialog(dialog,
+                        doctor.getName() + " already has an appointment at that time.\nNext free slot: "
+                                + nextFree.format(DateTimeFormatter.ofPattern("dd/MM/yyyy hh:mm a")),
+                        "Scheduling Conflict", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             dialog.dispose();
             loadAppointmentData();
             JOptionPane.showMessageDialog(this, "Appointment scheduled successfully!", "Success",
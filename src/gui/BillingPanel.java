@@ -11,9 +11,9 @@ import models.Patient;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Billing management panel.
@@ -28,7 +28,8 @@ public class BillingPanel extends JPanel {
     private BillingManager billingManager;
     private PatientManager patientManager;
     private StyledTable billsTable;
-    private DefaultTableModel tableModel;
+    private SnapshotTableModel<Bill> tableModel;
+    private TableLoader<Bill> loader;
 
     public BillingPanel() {
         HospitalManager hm = HospitalManager.getInstance();
@@ -94,12 +95,7 @@ public class BillingPanel extends JPanel {
         panel.setBackground(Color.WHITE);
 
         String[] columns = { "Bill ID", "Patient", "Total (₹)", "Paid (₹)", "Balance (₹)", "Status", "Date" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new SnapshotTableModel<>(columns, this::cellValue);
 
         billsTable = new StyledTable(tableModel);
         billsTable.setColumnWidths(150, 150, 100, 100, 100, 100, 120);
@@ -136,20 +132,47 @@ public class BillingPanel extends JPanel {
     }
 
     private void loadBillsData() {
-        tableModel.setRowCount(0);
-        List<Bill> bills = billingManager.getAllBills();
-
-        for (Bill bill : bills) {
-            Object[] row = {
-                    bill.getBillId(),
-                    bill.getPatientName(),
-                    String.format("%.2f", bill.getTotalAmount()),
-                    String.format("%.2f", bill.getPaidAmount()),
-                    String.format("%.2f", bill.getBalance()),
-                    bill.getStatus().getDisplayName(),
-                    bill.getFormattedDateGenerated()
-            };
-            tableModel.addRow(row);
+        load(billingManager::getAllBills);
+    }
+
+    /**
+     * Load the table rows in the background, replacing any load in progress
+     */
+    private void load(Supplier<List<Bill>> query) {
+        cancelLoading();
+        loader = new TableLoader<>(tableModel, query);
+        loader.execute();
+    }
+
+    /**
+     * Stop loading bills, e.g. when the user navigates away
+     */
+    public void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(false);
+            loader = null;
+        }
+    }
+
+    /**
+     * Get a table cell, formatted when the row becomes visible
+     */
+    private Object cellValue(Bill bill, int column) {
+        switch (column) {
+            case 0:
+                return bill.getBillId();
+            case 1:
+                return bill.getPatientName();
+            case 2:
+                return String.format("%.2f", bill.getTotalAmount());
+            case 3:
+                return String.format("%.2f", bill.getPaidAmount());
+            case 4:
+                return String.format("%.2f", bill.getBalance());
+            case 5:
+                return bill.getStatus().getDisplayName();
+            default:
+                return bill.getFormattedDateGenerated();
         }
     }
 
@@ -7,6 +7,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Dashboard panel showing hospital statistics and quick actions.
@@ -27,6 +28,7 @@ public class DashboardPanel extends JPanel {
     private JLabel roomsLabel;
     private JLabel revenueLabel;
     private JLabel occupancyLabel;
+    private SwingWorker<Stats, Void> statsLoader;
 
     /**
      * Create dashboard panel
@@ -266,12 +268,12 @@ public class DashboardPanel extends JPanel {
         content.add(Box.createVerticalStrut(15));
 
         // Department count
-        int deptCount = hospitalManager.getDoctorManager().getAllDepartments().size();
+        int deptCount = hospitalManager.getActiveDepartments();
         content.add(createOverviewItem("Active Departments", String.valueOf(deptCount)));
         content.add(Box.createVerticalStrut(10));
 
         // Pending bills
-        int pendingBills = hospitalManager.getBillingManager().getPendingBills().size();
+        int pendingBills = hospitalManager.getPendingBillCount();
         content.add(createOverviewItem("Pending Bills", String.valueOf(pendingBills)));
 
         panel.add(content, BorderLayout.CENTER);
@@ -302,14 +304,67 @@ public class DashboardPanel extends JPanel {
     }
 
     /**
-     * Refresh statistics display
+     * Refresh statistics display. The counts are computed in the background
+     * and shown once they are all known.
      */
     public void refreshStats() {
-        patientsLabel.setText(String.valueOf(hospitalManager.getTotalPatients()));
-        doctorsLabel.setText(String.valueOf(hospitalManager.getTotalDoctors()));
-        appointmentsLabel.setText(String.valueOf(hospitalManager.getTodaysAppointments()));
-        roomsLabel.setText(String.valueOf(hospitalManager.getAvailableRooms()));
-        revenueLabel.setText("₹" + String.format("%.0f", hospitalManager.getTodaysRevenue()));
-        occupancyLabel.setText(String.format("%.0f%%", hospitalManager.getRoomOccupancyRate()));
+        cancelLoading();
+        statsLoader = new SwingWorker<Stats, Void>() {
+            @Override
+            protected Stats doInBackground() {
+                Stats stats = new Stats();
+                stats.patients = hospitalManager.getTotalPatients();
+                stats.doctors = hospitalManager.getTotalDoctors();
+                stats.appointments = hospitalManager.getTodaysAppointments();
+                stats.rooms = hospitalManager.getAvailableRooms();
+                stats.revenue = hospitalManager.getTodaysRevenue();
+                stats.occupancy = hospitalManager.getRoomOccupancyRate();
+                return stats;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    showStats(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error loading statistics: " + e.getMessage());
+                }
+            }
+        };
+        statsLoader.execute();
+    }
+
+    /**
+     * Stop loading statistics, e.g. when the user navigates away
+     */
+    public void cancelLoading() {
+        if (statsLoader != null) {
+            statsLoader.cancel(false);
+            statsLoader = null;
+        }
+    }
+
+    private void showStats(Stats stats) {
+        patientsLabel.setText(String.valueOf(stats.patients));
+        doctorsLabel.setText(String.valueOf(stats.doctors));
+        appointmentsLabel.setText(String.valueOf(stats.appointments));
+        roomsLabel.setText(String.valueOf(stats.rooms));
+        revenueLabel.setText("₹" + String.format("%.0f", stats.revenue));
+        occupancyLabel.setText(String.format("%.0f%%", stats.occupancy));
+    }
+
+    /**
+     * Values shown in the stat cards
+     */
+    private static class Stats {
+        int patients;
+        int doctors;
+        int appointments;
+        int rooms;
+        double revenue;
+        double occupancy;
     }
 }
@@ -9,10 +9,10 @@ import models.User;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Doctor management panel.
@@ -24,9 +24,14 @@ public class DoctorPanel extends JPanel {
     private static final Color TEXT_PRIMARY = new Color(30, 41, 59);
     private static final Color TEXT_SECONDARY = new Color(100, 116, 139);
 
+    // Search as you type: pause before searching, and best matches shown
+    private static final int SEARCH_DELAY_MS = 120;
+    private static final int SEARCH_LIMIT = 100;
+
     private DoctorManager doctorManager;
     private StyledTable doctorTable;
-    private DefaultTableModel tableModel;
+    private SnapshotTableModel<Doctor> tableModel;
+    private TableLoader<Doctor> loader;
     private StyledTextField searchField;
 
     public DoctorPanel() {
@@ -69,7 +74,7 @@ public class DoctorPanel extends JPanel {
 
         searchField = new StyledTextField("Search doctors...");
         searchField.setPreferredSize(new Dimension(250, 40));
-        searchField.addActionListener(e -> searchDoctors());
+        searchField.addTypingListener(SEARCH_DELAY_MS, this::searchDoctors);
         rightPanel.add(searchField);
 
         StyledButton addButton = new StyledButton("+ Add Doctor");
@@ -87,12 +92,7 @@ public class DoctorPanel extends JPanel {
         panel.setBackground(Color.WHITE);
 
         String[] columns = { "Doctor ID", "Name", "Specialization", "Department", "Experience", "Fee (₹)", "Phone" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new SnapshotTableModel<>(columns, this::cellValue);
 
         doctorTable = new StyledTable(tableModel);
         doctorTable.setColumnWidths(100, 150, 130, 130, 90, 80, 120);
@@ -125,21 +125,7 @@ public class DoctorPanel extends JPanel {
     }
 
     private void loadDoctorData() {
-        tableModel.setRowCount(0);
-        List<Doctor> doctors = doctorManager.getAllDoctors();
-
-        for (Doctor doctor : doctors) {
-            Object[] row = {
-                    doctor.getDoctorId(),
-                    doctor.getName(),
-                    doctor.getSpecialization(),
-                    doctor.getDepartment(),
-                    doctor.getExperienceYears() + " yrs",
-                    String.format("%.0f", doctor.getConsultationFee()),
-                    doctor.getPhone()
-            };
-            tableModel.addRow(row);
-        }
+        load(doctorManager::getAllDoctors);
     }
 
     private void searchDoctors() {
@@ -149,20 +135,47 @@ public class DoctorPanel extends JPanel {
             return;
         }
 
-        tableModel.setRowCount(0);
-        List<Doctor> doctors = doctorManager.searchByName(query);
-
-        for (Doctor doctor : doctors) {
-            Object[] row = {
-                    doctor.getDoctorId(),
-                    doctor.getName(),
-                    doctor.getSpecialization(),
-                    doctor.getDepartment(),
-                    doctor.getExperienceYears() + " yrs",
-                    String.format("%.0f", doctor.getConsultationFee()),
-                    doctor.getPhone()
-            };
-            tableModel.addRow(row);
+        load(() -> doctorManager.searchByRelevance(query, SEARCH_LIMIT));
+    }
+
+    /**
+     * Load the table rows in the background, replacing any load in progress
+     */
+    private void load(Supplier<List<Doctor>> query) {
+        cancelLoading();
+        loader = new TableLoader<>(tableModel, query);
+        loader.execute();
+    }
+
+    /**
+     * Stop loading doctors, e.g. when the user navigates away
+     */
+    public void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(false);
+            loader = null;
+        }
+    }
+
+    /**
+     * Get a table cell, formatted when the row becomes visible
+     */
+    private Object cellValue(Doctor doctor, int column) {
+        switch (column) {
+            case 0:
+                return doctor.getDoctorId();
+            case 1:
+                return doctor.getName();
+            case 2:
+                return doctor.getSpecialization();
+            case 3:
+                return doctor.getDepartment();
+            case 4:
+                return doctor.getExperienceYears() + " yrs";
+            case 5:
+                return String.format("%.0f", doctor.getConsultationFee());
+            default:
+                return doctor.getPhone();
         }
     }
 
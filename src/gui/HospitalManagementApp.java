@@ -7,14 +7,20 @@ import models.User;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main application frame for the Hospital Management System.
  * Features a sidebar navigation and CardLayout for panel switching.
+ *
+ * Hospital data loads in the background while the login screen is shown.
+ * Each content panel is created the first time it is opened, once the
+ * managers it depends on have finished loading.
  */
 public class HospitalManagementApp extends JFrame {
 
     private static final Color BACKGROUND = new Color(248, 250, 252);
+    private static final Color TEXT_SECONDARY = new Color(100, 116, 139);
 
     private CardLayout cardLayout;
     private JPanel mainPanel;
@@ -32,11 +38,14 @@ public class HospitalManagementApp extends JFrame {
 
     private User currentUser;
     private UserManager userManager;
+    private String currentPanelName;
 
     /**
      * Create the main application
      */
     public HospitalManagementApp() {
+        // Start loading hospital data while the user logs in
+        HospitalManager.getInstance();
         initializeFrame();
         initializeUI();
         showLoginScreen();
@@ -92,21 +101,14 @@ public class HospitalManagementApp extends JFrame {
         contentPanel = new JPanel(contentCardLayout);
         contentPanel.setBackground(BACKGROUND);
 
-        // Initialize all panels
-        dashboardPanel = new DashboardPanel();
-        patientPanel = new PatientPanel();
-        doctorPanel = new DoctorPanel();
-        appointmentPanel = new AppointmentPanel();
-        roomPanel = new RoomPanel();
-        billingPanel = new BillingPanel();
-
-        // Add panels to content area
-        contentPanel.add(dashboardPanel, "dashboard");
-        contentPanel.add(patientPanel, "patients");
-        contentPanel.add(doctorPanel, "doctors");
-        contentPanel.add(appointmentPanel, "appointments");
-        contentPanel.add(roomPanel, "rooms");
-        contentPanel.add(billingPanel, "billing");
+        // Content panels are created on first navigation; show this until then
+        JPanel loadingPanel = new JPanel(new GridBagLayout());
+        loadingPanel.setBackground(BACKGROUND);
+        JLabel loadingLabel = new JLabel("Loading hospital data...");
+        loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        loadingLabel.setForeground(TEXT_SECONDARY);
+        loadingPanel.add(loadingLabel);
+        contentPanel.add(loadingPanel, "loading");
 
         appPanel.add(contentPanel, BorderLayout.CENTER);
         mainPanel.add(appPanel, "main");
@@ -128,27 +130,128 @@ public class HospitalManagementApp extends JFrame {
         // Update sidebar with user role for role-based menu
         sidebarPanel.setUserRole(currentUser.getRole(), currentUser.getDisplayName());
 
-        // Set up doctor-specific filtering for appointments
+        applyDoctorFilter();
+
+        cardLayout.show(mainPanel, "main");
+        navigateTo("dashboard");
+    }
+
+    /**
+     * Set up doctor-specific filtering on the panels created so far
+     */
+    private void applyDoctorFilter() {
+        if (currentUser == null) {
+            return;
+        }
         if ("Doctor".equals(currentUser.getRole()) && currentUser.getLinkedId() != null) {
             // Doctor sees only their appointments
-            appointmentPanel.setCurrentDoctorId(currentUser.getLinkedId());
-            patientPanel.setCurrentDoctorId(currentUser.getLinkedId());
+            if (appointmentPanel != null) {
+                appointmentPanel.setCurrentDoctorId(currentUser.getLinkedId());
+            }
+            if (patientPanel != null) {
+                patientPanel.setCurrentDoctorId(currentUser.getLinkedId());
+            }
         } else {
             // Admin/Receptionist sees all
-            appointmentPanel.clearDoctorFilter();
-            patientPanel.clearDoctorFilter();
+            if (appointmentPanel != null) {
+                appointmentPanel.clearDoctorFilter();
+            }
+            if (patientPanel != null) {
+                patientPanel.clearDoctorFilter();
+            }
         }
-
-        cardLayout.show(mainPanel, "main");
-        navigateTo("dashboard");
     }
 
     /**
-     * Navigate to a specific panel
+     * Navigate to a specific panel.
+     * If the managers behind the panel are still loading, a loading screen is
+     * shown and the panel opens as soon as they are ready.
      * 
      * @param panelName Name of panel to show
      */
     private void navigateTo(String panelName) {
+        cancelLoading();
+        currentPanelName = panelName;
+        CompletableFuture<?> ready = getReadiness(panelName);
+        if (ready.isDone()) {
+            showPanel(panelName);
+            return;
+        }
+
+        contentCardLayout.show(contentPanel, "loading");
+        ready.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            // The user may have navigated elsewhere in the meantime
+            if (panelName.equals(currentPanelName)) {
+                showPanel(panelName);
+            }
+        }));
+    }
+
+    /**
+     * Stop the background loads of the panels, whose results would arrive
+     * after the user has left them
+     */
+    private void cancelLoading() {
+        if (dashboardPanel != null) {
+            dashboardPanel.cancelLoading();
+        }
+        if (patientPanel != null) {
+            patientPanel.cancelLoading();
+        }
+        if (doctorPanel != null) {
+            doctorPanel.cancelLoading();
+        }
+        if (appointmentPanel != null) {
+            appointmentPanel.cancelLoading();
+        }
+        if (roomPanel != null) {
+            roomPanel.cancelLoading();
+        }
+        if (billingPanel != null) {
+            billingPanel.cancelLoading();
+        }
+    }
+
+    /**
+     * Get the loading state of the managers a panel needs
+     * 
+     * @param panelName Name of panel
+     * @return Future completed once the panel can be shown
+     */
+    private CompletableFuture<?> getReadiness(String panelName) {
+        HospitalManager hm = HospitalManager.getInstance();
+        switch (panelName) {
+            case "patients":
+                return hm.getPatientManagerReady();
+            case "doctors":
+                return hm.getDoctorManagerReady();
+            case "appointments":
+                return CompletableFuture.allOf(hm.getAppointmentManagerReady(),
+                        hm.getDoctorManagerReady(), hm.getPatientManagerReady());
+            case "rooms":
+                return hm.getRoomManagerReady();
+            case "billing":
+                return CompletableFuture.allOf(hm.getBillingManagerReady(), hm.getPatientManagerReady());
+            default:
+                return hm.whenAllReady();
+        }
+    }
+
+    /**
+     * Show a panel, creating it on first use, and refresh it
+     * 
+     * @param panelName Name of panel to show
+     */
+    private void showPanel(String panelName) {
+        try {
+            createPanelIfNeeded(panelName);
+        } catch (RuntimeException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Could not load hospital data: " + e.getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         contentCardLayout.show(contentPanel, panelName);
 
         // Refresh the panel when navigating to it
@@ -174,6 +277,54 @@ public class HospitalManagementApp extends JFrame {
         }
     }
 
+    /**
+     * Create a content panel the first time it is shown
+     * 
+     * @param panelName Name of panel
+     */
+    private void createPanelIfNeeded(String panelName) {
+        switch (panelName) {
+            case "dashboard":
+                if (dashboardPanel == null) {
+                    dashboardPanel = new DashboardPanel();
+                    contentPanel.add(dashboardPanel, panelName);
+                }
+                break;
+            case "patients":
+                if (patientPanel == null) {
+                    patientPanel = new PatientPanel();
+                    contentPanel.add(patientPanel, panelName);
+                    applyDoctorFilter();
+                }
+                break;
+            case "doctors":
+                if (doctorPanel == null) {
+                    doctorPanel = new DoctorPanel();
+                    contentPanel.add(doctorPanel, panelName);
+                }
+                break;
+            case "appointments":
+                if (appointmentPanel == null) {
+                    appointmentPanel = new AppointmentPanel();
+                    contentPanel.add(appointmentPanel, panelName);
+                    applyDoctorFilter();
+                }
+                break;
+            case "rooms":
+                if (roomPanel == null) {
+                    roomPanel = new RoomPanel();
+                    contentPanel.add(roomPanel, panelName);
+                }
+                break;
+            case "billing":
+                if (billingPanel == null) {
+                    billingPanel = new BillingPanel();
+                    contentPanel.add(billingPanel, panelName);
+                }
+                break;
+        }
+    }
+
     /**
      * Get current logged-in user
      */
@@ -192,6 +343,7 @@ public class HospitalManagementApp extends JFrame {
      * Logout and return to login screen
      */
     public void logout() {
+        cancelLoading();
         if (userManager != null) {
             userManager.logout();
         }
@@ -7,11 +7,11 @@ import models.Patient;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Patient management panel.
@@ -24,9 +24,14 @@ public class PatientPanel extends JPanel {
     private static final Color TEXT_PRIMARY = new Color(30, 41, 59);
     private static final Color TEXT_SECONDARY = new Color(100, 116, 139);
 
+    // Search as you type: pause before searching, and best matches shown
+    private static final int SEARCH_DELAY_MS = 120;
+    private static final int SEARCH_LIMIT = 100;
+
     private PatientManager patientManager;
     private StyledTable patientTable;
-    private DefaultTableModel tableModel;
+    private SnapshotTableModel<Patient> tableModel;
+    private TableLoader<Patient> loader;
     private StyledTextField searchField;
 
     // For filtering patients by doctor (when logged in as doctor)
@@ -93,7 +98,7 @@ public class PatientPanel extends JPanel {
 
         searchField = new StyledTextField("Search patients...");
         searchField.setPreferredSize(new Dimension(250, 40));
-        searchField.addActionListener(e -> searchPatients());
+        searchField.addTypingListener(SEARCH_DELAY_MS, this::searchPatients);
         rightPanel.add(searchField);
 
         StyledButton addButton = new StyledButton("+ Add Patient");
@@ -112,12 +117,7 @@ public class PatientPanel extends JPanel {
 
         // Table columns
         String[] columns = { "Patient ID", "Name", "Age", "Gender", "Blood Group", "Phone", "Status", "Actions" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 7; // Only actions column
-            }
-        };
+        tableModel = new SnapshotTableModel<>(columns, this::cellValue);
 
         patientTable = new StyledTable(tableModel);
         patientTable.setColumnWidths(120, 150, 60, 80, 90, 120, 100, 150);
@@ -151,22 +151,7 @@ public class PatientPanel extends JPanel {
     }
 
     private void loadPatientData() {
-        tableModel.setRowCount(0);
-        List<Patient> patients = patientManager.getAllPatients();
-
-        for (Patient patient : patients) {
-            Object[] row = {
-                    patient.getPatientId(),
-                    patient.getName(),
-                    patient.getAge(),
-                    patient.getGender(),
-                    patient.getBloodGroup(),
-                    patient.getPhone(),
-                    patient.isAdmitted() ? "Admitted" : "OPD",
-                    "View | Edit | Delete"
-            };
-            tableModel.addRow(row);
-        }
+        load(patientManager::getAllPatients);
     }
 
     private void searchPatients() {
@@ -176,21 +161,49 @@ public class PatientPanel extends JPanel {
             return;
         }
 
-        tableModel.setRowCount(0);
-        List<Patient> patients = patientManager.searchByName(query);
-
-        for (Patient patient : patients) {
-            Object[] row = {
-                    patient.getPatientId(),
-                    patient.getName(),
-                    patient.getAge(),
-                    patient.getGender(),
-                    patient.getBloodGroup(),
-                    patient.getPhone(),
-                    patient.isAdmitted() ? "Admitted" : "OPD",
-                    "View | Edit | Delete"
-            };
-            tableModel.addRow(row);
+        load(() -> patientManager.searchByRelevance(query, SEARCH_LIMIT));
+    }
+
+    /**
+     * Load the table rows in the background, replacing any load in progress
+     */
+    private void load(Supplier<List<Patient>> query) {
+        cancelLoading();
+        loader = new TableLoader<>(tableModel, query);
+        loader.execute();
+    }
+
+    /**
+     * Stop loading patients, e.g. when the user navigates away
+     */
+    public void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(false);
+            loader = null;
+        }
+    }
+
+    /**
+     * Get a table cell, formatted when the row becomes visible
+     */
+    private Object cellValue(Patient patient, int column) {
+        switch (column) {
+            case 0:
+                return patient.getPatientId();
+            case 1:
+                return patient.getName();
+            case 2:
+                return patient.getAge();
+            case 3:
+                return patient.getGender();
+            case 4:
+                return patient.getBloodGroup();
+            case 5:
+                return patient.getPhone();
+            case 6:
+                return patient.isAdmitted() ? "Admitted" : "OPD";
+            default:
+                return "View | Edit | Delete";
         }
     }
 
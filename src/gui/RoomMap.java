@@ -0,0 +1,388 @@
+package gui;
+
+import models.Room;
+import models.Room.RoomStatus;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.RoundRectangle2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Scrollable map of room cards, grouped in titled sections (one per floor).
+ *
+ * The cards are painted by this single component rather than being
+ * components of their own. Rooms are kept in flat arrays in display order,
+ * together with the values drawn on their cards, and a card's position
+ * follows from its index: sections are stacked vertically and wrap their
+ * cards into as many columns as the width allows. Painting only visits the
+ * rows inside the clip, clicks are resolved by coordinate, and a room whose
+ * card changes repaints just that card.
+ */
+class RoomMap extends JComponent implements Scrollable {
+
+    private static final Color BACKGROUND = new Color(248, 250, 252);
+    private static final Color TEXT_PRIMARY = new Color(30, 41, 59);
+    private static final Color TEXT_SECONDARY = new Color(100, 116, 139);
+
+    private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
+    private static final Font NUMBER_FONT = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Font TYPE_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+    private static final Font STATUS_FONT = new Font("Segoe UI", Font.BOLD, 9);
+
+    // Card geometry
+    private static final int CARD_WIDTH = 100;
+    private static final int CARD_HEIGHT = 90;
+    private static final int H_GAP = 15;
+    private static final int V_GAP = 10;
+    private static final int PADDING_TOP = 10;
+    private static final int STATUS_BAR = 4;
+
+    // Section geometry
+    private static final int TITLE_HEIGHT = 32;
+    private static final int SECTION_GAP = 20;
+
+    private final Function<RoomStatus, Color> statusColors;
+    private Consumer<Room> roomClickListener;
+
+    // Per card, in display order: the room and the values drawn for it
+    private Room[] rooms = new Room[0];
+    private String[] numbers = new String[0];
+    private String[] typeNames = new String[0];
+    private RoomStatus[] statuses = new RoomStatus[0];
+    private final Map<String, Integer> indexByNumber = new HashMap<>();
+
+    // Per section: its title and the index of its first card; one extra entry
+    // in sectionStarts marks the end of the last section
+    private String[] titles = new String[0];
+    private int[] sectionStarts = { 0 };
+
+    // Layout for layoutWidth: column count and the y of each section title
+    private int layoutWidth = -1;
+    private int columns = 1;
+    private int[] sectionTops = new int[0];
+    private int height;
+
+    /**
+     * Create an empty room map
+     *
+     * @param statusColors Color of each room status
+     */
+    RoomMap(Function<RoomStatus, Color> statusColors) {
+        this.statusColors = statusColors;
+        setOpaque(true);
+        setBackground(BACKGROUND);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = indexAt(e.getX(), e.getY());
+                if (index >= 0 && roomClickListener != null) {
+                    roomClickListener.accept(rooms[index]);
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setCursor(Cursor.getPredefinedCursor(
+                        indexAt(e.getX(), e.getY()) >= 0 ? Cursor.HAND_CURSOR : Cursor.DEFAULT_CURSOR));
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * Set the action run when a room card is clicked
+     *
+     * @param listener Receives the clicked room
+     */
+    void setRoomClickListener(Consumer<Room> listener) {
+        this.roomClickListener = listener;
+    }
+
+    /**
+     * Show rooms in sections. If the sections hold the same rooms as before,
+     * only the cards whose type or status changed are repainted.
+     *
+     * @param sectionTitles Title of each section
+     * @param sections      Rooms of each section, in display order
+     */
+    void setSections(List<String> sectionTitles, List<List<Room>> sections) {
+        int count = 0;
+        for (List<Room> section : sections) {
+            count += section.size();
+        }
+        Room[] newRooms = new Room[count];
+        int[] newStarts = new int[sections.size() + 1];
+        int index = 0;
+        for (int s = 0; s < sections.size(); s++) {
+            newStarts[s] = index;
+            for (Room room : sections.get(s)) {
+                newRooms[index++] = room;
+            }
+        }
+        newStarts[sections.size()] = index;
+        String[] newTitles = sectionTitles.toArray(new String[0]);
+
+        if (Arrays.equals(newTitles, titles) && Arrays.equals(newStarts, sectionStarts) && sameRooms(newRooms)) {
+            for (int i = 0; i < newRooms.length; i++) {
+                setRoom(i, newRooms[i]);
+            }
+            return;
+        }
+
+        rooms = newRooms;
+        titles = newTitles;
+        sectionStarts = newStarts;
+        numbers = new String[count];
+        typeNames = new String[count];
+        statuses = new RoomStatus[count];
+        indexByNumber.clear();
+        for (int i = 0; i < count; i++) {
+            numbers[i] = rooms[i].getRoomNumber();
+            typeNames[i] = rooms[i].getType().getDisplayName();
+            statuses[i] = rooms[i].getStatus();
+            indexByNumber.put(numbers[i], i);
+        }
+        layoutWidth = -1;
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Show the current state of a room, repainting its card if it changed
+     *
+     * @param room Room already on the map; other rooms are ignored
+     */
+    void updateRoom(Room room) {
+        Integer index = room == null ? null : indexByNumber.get(room.getRoomNumber());
+        if (index != null) {
+            setRoom(index, room);
+        }
+    }
+
+    private boolean sameRooms(Room[] newRooms) {
+        for (int i = 0; i < newRooms.length; i++) {
+            if (!newRooms[i].getRoomNumber().equals(numbers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setRoom(int index, Room room) {
+        rooms[index] = room;
+        String typeName = room.getType().getDisplayName();
+        if (room.getStatus() != statuses[index] || !typeName.equals(typeNames[index])) {
+            statuses[index] = room.getStatus();
+            typeNames[index] = typeName;
+            ensureLayout();
+            repaint(cardBounds(index));
+        }
+    }
+
+    // ==================== LAYOUT ====================
+
+    private int currentWidth() {
+        Container parent = getParent();
+        return parent instanceof JViewport ? parent.getWidth() : getWidth();
+    }
+
+    /**
+     * Lay the sections out for the current width, if not done yet
+     */
+    private void ensureLayout() {
+        int width = currentWidth();
+        if (width == layoutWidth) {
+            return;
+        }
+        layoutWidth = width;
+        columns = Math.max(1, (width - H_GAP) / (CARD_WIDTH + H_GAP));
+        sectionTops = new int[titles.length];
+        int y = 0;
+        for (int s = 0; s < titles.length; s++) {
+            sectionTops[s] = y;
+            int rows = (sectionStarts[s + 1] - sectionStarts[s] + columns - 1) / columns;
+            y += TITLE_HEIGHT + V_GAP + rows * (CARD_HEIGHT + V_GAP) + SECTION_GAP;
+        }
+        height = y;
+    }
+
+    private Rectangle cardBounds(int index) {
+        int s = Arrays.binarySearch(sectionStarts, 0, titles.length, index);
+        if (s < 0) {
+            s = -s - 2;
+        } else {
+            // Skip empty sections starting at the same index
+            while (s + 1 < titles.length && sectionStarts[s + 1] == index) {
+                s++;
+            }
+        }
+        int offset = index - sectionStarts[s];
+        int x = H_GAP + (offset % columns) * (CARD_WIDTH + H_GAP);
+        int y = gridTop(s) + (offset / columns) * (CARD_HEIGHT + V_GAP);
+        return new Rectangle(x, y, CARD_WIDTH, CARD_HEIGHT);
+    }
+
+    private int gridTop(int section) {
+        return sectionTops[section] + TITLE_HEIGHT + V_GAP;
+    }
+
+    /**
+     * Get the card at a point
+     *
+     * @return Index of the room, or -1 if the point is not on a card
+     */
+    private int indexAt(int x, int y) {
+        ensureLayout();
+        int s = Arrays.binarySearch(sectionTops, y);
+        if (s < 0) {
+            s = -s - 2;
+        }
+        if (s < 0) {
+            return -1;
+        }
+        int gridY = y - gridTop(s);
+        int gridX = x - H_GAP;
+        if (gridY < 0 || gridX < 0
+                || gridY % (CARD_HEIGHT + V_GAP) >= CARD_HEIGHT
+                || gridX % (CARD_WIDTH + H_GAP) >= CARD_WIDTH) {
+            return -1;
+        }
+        int column = gridX / (CARD_WIDTH + H_GAP);
+        if (column >= columns) {
+            return -1;
+        }
+        int index = sectionStarts[s] + (gridY / (CARD_HEIGHT + V_GAP)) * columns + column;
+        return index < sectionStarts[s + 1] ? index : -1;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        ensureLayout();
+        return new Dimension(H_GAP + CARD_WIDTH + H_GAP, height);
+    }
+
+    // ==================== PAINTING ====================
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        ensureLayout();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        int rowHeight = CARD_HEIGHT + V_GAP;
+        for (int s = 0; s < titles.length; s++) {
+            int top = sectionTops[s];
+            int bottom = s + 1 < titles.length ? sectionTops[s + 1] : height;
+            if (bottom <= clip.y) {
+                continue;
+            }
+            if (top >= clip.y + clip.height) {
+                break;
+            }
+
+            if (top + TITLE_HEIGHT > clip.y) {
+                g2.setFont(TITLE_FONT);
+                g2.setColor(TEXT_PRIMARY);
+                g2.drawString(titles[s], 0, top + g2.getFontMetrics().getAscent());
+            }
+
+            // Only the rows of cards that intersect the clip
+            int gridY = gridTop(s);
+            int firstRow = Math.max(0, (clip.y - gridY) / rowHeight);
+            int lastRow = (clip.y + clip.height - gridY) / rowHeight;
+            int first = sectionStarts[s] + firstRow * columns;
+            int end = Math.min(sectionStarts[s + 1], sectionStarts[s] + (lastRow + 1) * columns);
+            for (int i = first; i < end; i++) {
+                Rectangle card = cardBounds(i);
+                if (card.intersects(clip)) {
+                    paintCard(g2, i, card);
+                }
+            }
+        }
+        g2.dispose();
+    }
+
+    private void paintCard(Graphics2D g2, int index, Rectangle card) {
+        Color statusColor = statusColors.apply(statuses[index]);
+
+        g2.setColor(Color.WHITE);
+        g2.fill(new RoundRectangle2D.Float(card.x, card.y, card.width, card.height, 10, 10));
+
+        // Status indicator bar
+        g2.setColor(statusColor);
+        g2.fillRect(card.x, card.y + card.height - STATUS_BAR, card.width, STATUS_BAR);
+
+        int y = card.y + PADDING_TOP;
+        y = drawCentered(g2, numbers[index], NUMBER_FONT, TEXT_PRIMARY, card, y) + 5;
+        y = drawCentered(g2, abbreviate(typeNames[index], 8), TYPE_FONT, TEXT_SECONDARY, card, y) + 5;
+        drawCentered(g2, abbreviate(statuses[index].getDisplayName(), 10), STATUS_FONT, statusColor, card, y);
+    }
+
+    /**
+     * Draw a line of text centered in a card
+     *
+     * @return y below the line
+     */
+    private int drawCentered(Graphics2D g2, String text, Font font, Color color, Rectangle card, int y) {
+        g2.setFont(font);
+        g2.setColor(color);
+        FontMetrics metrics = g2.getFontMetrics();
+        g2.drawString(text, card.x + (card.width - metrics.stringWidth(text)) / 2, y + metrics.getAscent());
+        return y + metrics.getHeight();
+    }
+
+    private static String abbreviate(String text, int length) {
+        return text.substring(0, Math.min(text.length(), length));
+    }
+
+    // ==================== SCROLLABLE ====================
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL) {
+            return Math.max(16, visibleRect.height - (CARD_HEIGHT + V_GAP));
+        }
+        return visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -11,7 +11,11 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Room management panel with visual grid view.
@@ -30,7 +34,8 @@ public class RoomPanel extends JPanel {
     private static final Color CLEANING_COLOR = new Color(59, 130, 246);
 
     private RoomManager roomManager;
-    private JPanel roomsGrid;
+    private RoomMap roomMap;
+    private SwingWorker<Map<Integer, List<Room>>, Void> loader;
 
     public RoomPanel() {
         this.roomManager = HospitalManager.getInstance().getRoomManager();
@@ -93,13 +98,12 @@ public class RoomPanel extends JPanel {
     }
 
     private JScrollPane createContent() {
-        roomsGrid = new JPanel();
-        roomsGrid.setLayout(new BoxLayout(roomsGrid, BoxLayout.Y_AXIS));
-        roomsGrid.setBackground(BACKGROUND);
+        roomMap = new RoomMap(this::getStatusColor);
+        roomMap.setRoomClickListener(this::showRoomDetails);
 
         loadRoomsByFloor();
 
-        JScrollPane scrollPane = new JScrollPane(roomsGrid);
+        JScrollPane scrollPane = new JScrollPane(roomMap);
         scrollPane.setBorder(null);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         scrollPane.setBackground(BACKGROUND);
@@ -108,48 +112,67 @@ public class RoomPanel extends JPanel {
         return scrollPane;
     }
 
+    /**
+     * Query the rooms in the background, grouped by floor, then show them
+     */
     private void loadRoomsByFloor() {
-        roomsGrid.removeAll();
-
-        // Group rooms by floor
-        for (int floor = 0; floor <= 5; floor++) {
-            List<Room> floorRooms = roomManager.getRoomsByFloor(floor);
-            if (!floorRooms.isEmpty()) {
-                roomsGrid.add(createFloorSection(floor, floorRooms));
-                roomsGrid.add(Box.createVerticalStrut(20));
+        cancelLoading();
+        loader = new SwingWorker<Map<Integer, List<Room>>, Void>() {
+            @Override
+            protected Map<Integer, List<Room>> doInBackground() {
+                Map<Integer, List<Room>> floors = new TreeMap<>();
+                for (Room room : roomManager.getAllRooms()) {
+                    floors.computeIfAbsent(room.getFloor(), k -> new ArrayList<>()).add(room);
+                }
+                return floors;
             }
-        }
 
-        roomsGrid.revalidate();
-        roomsGrid.repaint();
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    showFloors(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error loading rooms: " + e.getMessage());
+                }
+            }
+        };
+        loader.execute();
+    }
+
+    /**
+     * Stop loading rooms, e.g. when the user navigates away
+     */
+    public void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(false);
+            loader = null;
+        }
     }
 
-    private JPanel createFloorSection(int floor, List<Room> rooms) {
-        JPanel section = new JPanel(new BorderLayout());
-        section.setBackground(BACKGROUND);
-        section.setAlignmentX(Component.LEFT_ALIGNMENT);
-        section.setMaximumSize(new Dimension(Integer.MAX_VALUE, 200));
-
-        // Floor label
-        String floorName = floor == 0 ? "Ground Floor (Emergency)"
-                : "Floor " + floor + " (" + getFloorType(floor) + ")";
-        JLabel floorLabel = new JLabel(floorName);
-        floorLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
-        floorLabel.setForeground(TEXT_PRIMARY);
-        floorLabel.setBorder(new EmptyBorder(0, 0, 10, 0));
-        section.add(floorLabel, BorderLayout.NORTH);
-
-        // Rooms grid
-        JPanel grid = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 10));
-        grid.setBackground(BACKGROUND);
-
-        for (Room room : rooms) {
-            grid.add(createRoomCard(room));
+    private void showFloors(Map<Integer, List<Room>> floors) {
+        List<String> titles = new ArrayList<>();
+        for (int floor : floors.keySet()) {
+            titles.add(getFloorName(floor));
         }
+        roomMap.setSections(titles, new ArrayList<>(floors.values()));
+    }
 
-        section.add(grid, BorderLayout.CENTER);
+    /**
+     * Show the current state of a room after it was changed from this panel
+     */
+    private void showRoom(String roomNumber) {
+        roomMap.updateRoom(roomManager.getRoomByNumber(roomNumber));
+    }
 
-        return section;
+    private String getFloorName(int floor) {
+        if (floor == 0) {
+            return "Ground Floor (Emergency)";
+        }
+        String type = getFloorType(floor);
+        return type.isEmpty() ? "Floor " + floor : "Floor " + floor + " (" + type + ")";
     }
 
     private String getFloorType(int floor) {
@@ -169,69 +192,6 @@ public class RoomPanel extends JPanel {
         }
     }
 
-    private JPanel createRoomCard(Room room) {
-        Color statusColor = getStatusColor(room.getStatus());
-
-        JPanel card = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(Color.WHITE);
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 10, 10));
-
-                // Status indicator bar
-                g2.setColor(statusColor);
-                g2.fillRect(0, getHeight() - 4, getWidth(), 4);
-
-                g2.dispose();
-            }
-        };
-
-        card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
-        card.setOpaque(false);
-        card.setPreferredSize(new Dimension(100, 90));
-        card.setBorder(new EmptyBorder(10, 12, 10, 12));
-        card.setCursor(new Cursor(Cursor.HAND_CURSOR));
-
-        // Room number
-        JLabel roomNumLabel = new JLabel(room.getRoomNumber());
-        roomNumLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        roomNumLabel.setForeground(TEXT_PRIMARY);
-        roomNumLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        card.add(roomNumLabel);
-
-        card.add(Box.createVerticalStrut(5));
-
-        // Room type
-        JLabel typeLabel = new JLabel(
-                room.getType().getDisplayName().substring(0, Math.min(room.getType().getDisplayName().length(), 8)));
-        typeLabel.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-        typeLabel.setForeground(TEXT_SECONDARY);
-        typeLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        card.add(typeLabel);
-
-        card.add(Box.createVerticalStrut(5));
-
-        // Status
-        JLabel statusLabel = new JLabel(room.getStatus().getDisplayName().substring(0,
-                Math.min(room.getStatus().getDisplayName().length(), 10)));
-        statusLabel.setFont(new Font("Segoe UI", Font.BOLD, 9));
-        statusLabel.setForeground(statusColor);
-        statusLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        card.add(statusLabel);
-
-        // Click handler
-        card.addMouseListener(new java.awt.event.MouseAdapter() {
-            @Override
-            public void mouseClicked(java.awt.event.MouseEvent e) {
-                showRoomDetails(room);
-            }
-        });
-
-        return card;
-    }
-
     private Color getStatusColor(RoomStatus status) {
         switch (status) {
             case AVAILABLE:
@@ -281,21 +241,21 @@ public class RoomPanel extends JPanel {
             String patientName = JOptionPane.showInputDialog(this, "Enter Patient Name:");
             if (patientId != null && patientName != null) {
                 roomManager.allocateRoom(room.getRoomNumber(), patientId, patientName);
-                refresh();
+                showRoom(room.getRoomNumber());
             }
         } else if (room.getStatus() == RoomStatus.AVAILABLE && choice == 1) {
             // Set maintenance
             roomManager.setMaintenance(room.getRoomNumber());
-            refresh();
+            showRoom(room.getRoomNumber());
         } else if (room.getStatus() == RoomStatus.OCCUPIED && choice == 0) {
             // Release room
             roomManager.releaseRoom(room.getRoomNumber());
-            refresh();
+            showRoom(room.getRoomNumber());
         } else if ((room.getStatus() == RoomStatus.CLEANING || room.getStatus() == RoomStatus.MAINTENANCE)
                 && choice == 0) {
             // Mark available
             roomManager.markRoomAvailable(room.getRoomNumber());
-            refresh();
+            showRoom(room.getRoomNumber());
         }
     }
 
@@ -340,7 +300,5 @@ public class RoomPanel extends JPanel {
 
     public void refresh() {
         loadRoomsByFloor();
-        revalidate();
-        repaint();
     }
 }
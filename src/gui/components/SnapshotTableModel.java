@@ -0,0 +1,113 @@
+package gui.components;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only table model that shows a list of entities without copying it.
+ * Cell values are produced from a row's entity only when the table asks for
+ * them, i.e. for the cells being painted, so nothing is formatted for rows
+ * that are scrolled out of view. Replacing the list fires a single change
+ * event however many rows it has.
+ *
+ * A list handed to {@link #setRows} must not change afterwards; the
+ * snapshots returned by the managers' getAll methods and the lists returned
+ * by their queries qualify. Rows can also be appended in chunks, in which
+ * case the model keeps its own list; {@link TableLoader} does this for
+ * filtered loads.
+ *
+ * @param <T> Entity type shown in each row
+ */
+public class SnapshotTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Produces the value of a cell from the entity shown in its row
+     *
+     * @param <T> Entity type
+     */
+    public interface CellValues<T> {
+        Object valueAt(T entity, int column);
+    }
+
+    private final String[] columns;
+    private final CellValues<T> cellValues;
+    private List<T> rows = Collections.emptyList();
+    // Whether rows is a list of our own that chunks can be appended to
+    private boolean growable;
+
+    /**
+     * Create an empty model
+     *
+     * @param columns    Column names
+     * @param cellValues Cell values of an entity by column index
+     */
+    public SnapshotTableModel(String[] columns, CellValues<T> cellValues) {
+        this.columns = columns.clone();
+        this.cellValues = cellValues;
+    }
+
+    /**
+     * Show a new list of entities
+     *
+     * @param rows Entities in display order; not modified afterwards
+     */
+    public void setRows(List<T> rows) {
+        this.rows = rows;
+        this.growable = false;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Remove all rows
+     */
+    public void clearRows() {
+        this.rows = new ArrayList<>();
+        this.growable = true;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Append a chunk of rows, firing a single rows-inserted event
+     *
+     * @param chunk Entities to show after the current rows
+     */
+    public void addRows(List<? extends T> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        if (!growable) {
+            rows = new ArrayList<>(rows);
+            growable = true;
+        }
+        int first = rows.size();
+        rows.addAll(chunk);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return cellValues.valueAt(rows.get(row), column);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+}
@@ -2,6 +2,8 @@ package gui.components;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
@@ -132,6 +134,64 @@ public class StyledTextField extends JTextField {
         return showingPlaceholder ? "" : getText();
     }
 
+    /**
+     * Run an action once the user pauses typing, e.g. to search as they type.
+     * Enter runs it at once. Showing or hiding the placeholder is not a
+     * change, and the action does not run again for the same text.
+     * 
+     * @param delay  Milliseconds after the last keystroke
+     * @param action Action to run on the Event Dispatch Thread
+     */
+    public void addTypingListener(int delay, Runnable action) {
+        TypingListener listener = new TypingListener(delay, action);
+        getDocument().addDocumentListener(listener);
+        addActionListener(e -> listener.runNow());
+    }
+
+    /**
+     * Debounces document changes into one run of an action
+     */
+    private final class TypingListener implements DocumentListener {
+        private final Timer timer;
+        private final Runnable action;
+        // Text the action last ran for
+        private String lastText;
+
+        TypingListener(int delay, Runnable action) {
+            this.action = action;
+            this.lastText = getActualText();
+            this.timer = new Timer(delay, e -> runIfChanged());
+            timer.setRepeats(false);
+        }
+
+        void runNow() {
+            timer.stop();
+            lastText = getActualText();
+            action.run();
+        }
+
+        private void runIfChanged() {
+            if (!getActualText().equals(lastText)) {
+                runNow();
+            }
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            timer.restart();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            timer.restart();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Attribute changes only
+        }
+    }
+
     /**
      * Set placeholder text
      * 
@@ -0,0 +1,143 @@
+package gui.components;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Loads the rows of a {@link SnapshotTableModel} on a background thread.
+ *
+ * The query, and the optional filter, run off the Event Dispatch Thread.
+ * Without a filter the query result is already complete once it returns,
+ * so the model is handed that list as it is, in one change event and
+ * without copying it. With a filter, rows are handed to the table in
+ * chunks as they pass: a screenful first, then chunks that double in size,
+ * each applied as one rows-inserted event. The first rows therefore appear
+ * as soon as they are found, and the rest follow while the user can
+ * already scroll. The table keeps its previous rows until the first rows
+ * arrive, so a refresh does not flicker.
+ *
+ * A cancelled loader stops between chunks and leaves the model untouched.
+ * Panels cancel their loader when the user navigates away or a newer load
+ * replaces it.
+ *
+ * @param <T> Entity type shown in each row
+ */
+public class TableLoader<T> extends SwingWorker<List<T>, List<T>> {
+
+    // About one screen of rows
+    private static final int FIRST_CHUNK = 50;
+    private static final int MAX_CHUNK = 50_000;
+
+    private final SnapshotTableModel<T> model;
+    private final Supplier<List<T>> query;
+    private final Predicate<? super T> filter;
+
+    // Only used on the Event Dispatch Thread
+    private boolean started;
+
+    /**
+     * Create a loader for all rows of a query
+     *
+     * @param model Model to fill
+     * @param query Manager query, run in the background
+     */
+    public TableLoader(SnapshotTableModel<T> model, Supplier<List<T>> query) {
+        this(model, query, null);
+    }
+
+    /**
+     * Create a loader
+     *
+     * @param model  Model to fill
+     * @param query  Manager query, run in the background
+     * @param filter Rows to keep, tested in the background; null keeps all
+     */
+    public TableLoader(SnapshotTableModel<T> model, Supplier<List<T>> query, Predicate<? super T> filter) {
+        this.model = model;
+        this.query = query;
+        this.filter = filter;
+    }
+
+    /**
+     * Run the query, and publish the rows that pass the filter if there is one
+     *
+     * @return The query result when there is no filter, otherwise null
+     */
+    @Override
+    protected List<T> doInBackground() {
+        List<T> rows = query.get();
+        if (filter == null) {
+            // Manager snapshots and query results are not modified afterwards
+            return rows;
+        }
+
+        int chunkSize = FIRST_CHUNK;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        for (T row : rows) {
+            if (isCancelled()) {
+                return null;
+            }
+            if (filter.test(row)) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    publish(chunk);
+                    chunkSize = Math.min(chunkSize * 2, MAX_CHUNK);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            publish(chunk);
+        }
+        return null;
+    }
+
+    @Override
+    protected void process(List<List<T>> chunks) {
+        if (isCancelled()) {
+            return;
+        }
+        start();
+        if (chunks.size() == 1) {
+            model.addRows(chunks.get(0));
+            return;
+        }
+        // Chunks published while the EDT was busy are applied as one event
+        List<T> combined = new ArrayList<>();
+        for (List<T> chunk : chunks) {
+            combined.addAll(chunk);
+        }
+        model.addRows(combined);
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            return;
+        }
+        List<T> rows;
+        try {
+            rows = get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error loading table: " + e.getMessage());
+            return;
+        }
+        if (rows != null) {
+            model.setRows(rows);
+            return;
+        }
+        // Empty filtered results never reach process()
+        start();
+    }
+
+    private void start() {
+        if (!started) {
+            started = true;
+            model.clearRows();
+        }
+    }
+}
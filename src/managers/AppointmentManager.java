@@ -4,11 +4,24 @@ import models.Appointment;
 import models.Appointment.AppointmentStatus;
 import utils.FileHandler;
 import utils.IDGenerator;
+import utils.index.DateIndex;
+import utils.index.SecondaryIndex;
+import utils.index.Tally;
+import utils.storage.Journal.Op;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -17,48 +30,169 @@ import java.util.stream.Collectors;
  */
 public class AppointmentManager {
 
-    private List<Appointment> appointments;
+    // Keyed by ID; insertion order is kept for listings
+    private Map<String, Appointment> appointments;
+
+    // Guards the map and indexes; queries share the read lock, mutations take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Read-only list handed out by getAllAppointments; dropped whenever appointments are
+    // added, replaced or removed, and rebuilt by the next reader
+    private volatile List<Appointment> snapshot;
+
+    // Serialize conflict check and insert per doctor stripe, so that bookings
+    // for different doctors only contend on the brief insert itself
+    private final Lock[] bookingLocks = createBookingLocks();
+
+    // Appointments closer together than this conflict
+    private static final Duration SLOT_LENGTH = Duration.ofMinutes(30);
+
+    // Number of booking locks doctors are spread over
+    private static final int BOOKING_STRIPES = 64;
+
+    // Time-ordered appointments per patient and per doctor
+    private final SecondaryIndex<Appointment, LocalDateTime> byPatient = new SecondaryIndex<>(
+            Appointment::getAppointmentId, Appointment::getPatientId, Appointment::getDateTime);
+    private final SecondaryIndex<Appointment, LocalDateTime> byDoctor = new SecondaryIndex<>(
+            Appointment::getAppointmentId, Appointment::getDoctorId, Appointment::getDateTime);
+
+    // Appointments bucketed by day, for today/upcoming queries
+    private final DateIndex<Appointment> byDate = new DateIndex<>(
+            Appointment::getAppointmentId, Appointment::getDateTime);
+
+    // Scheduled appointments per doctor on absolute start time, for conflict checks
+    private final SecondaryIndex<Appointment, LocalDateTime> doctorSchedule = new SecondaryIndex<>(
+            Appointment::getAppointmentId, AppointmentManager::scheduleKey, Appointment::getDateTime);
+
+    // Running count of appointments per status, for the dashboard
+    private final Tally<Appointment, AppointmentStatus> byStatus = new Tally<>(
+            Appointment::getAppointmentId, Appointment::getStatus);
 
     /**
      * Constructor - loads appointments from file
      */
     public AppointmentManager() {
-        this.appointments = FileHandler.loadAppointments();
-        if (this.appointments == null) {
-            this.appointments = new ArrayList<>();
-        }
+        this.appointments = indexById(FileHandler.loadAppointments());
+        IDGenerator.advancePast(appointments.keySet());
+        rebuildIndexes();
+        FileHandler.registerAppointmentSource(this::getAllAppointments, lock.readLock());
     }
 
     /**
-     * Schedule a new appointment
+     * Schedule a new appointment. The caller holds the doctor's booking lock
+     * and has checked for conflicts.
      * 
      * @param appointment Appointment to schedule
      * @return Generated appointment ID
      */
-    public String scheduleAppointment(Appointment appointment) {
-        String appointmentId = IDGenerator.generateAppointmentId();
-        appointment.setAppointmentId(appointmentId);
-        appointment.setStatus(AppointmentStatus.SCHEDULED);
-        appointments.add(appointment);
-        saveData();
-        return appointmentId;
+    private String scheduleAppointment(Appointment appointment) {
+        lock.writeLock().lock();
+        try {
+            String appointmentId = IDGenerator.generateAppointmentId();
+            appointment.setAppointmentId(appointmentId);
+            appointment.setStatus(AppointmentStatus.SCHEDULED);
+            appointments.put(appointment.getAppointmentId(), appointment);
+            snapshot = null;
+            index(appointment);
+            FileHandler.appendAppointment(Op.ADD, appointment);
+            return appointmentId;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Update an existing appointment
+     * Schedule a new appointment unless it conflicts with the doctor's
+     * schedule. The conflict check and the insert are atomic per doctor.
      * 
-     * @param appointment Appointment with updated data
-     * @return true if update successful
+     * @param appointment Appointment to schedule
+     * @return Generated appointment ID, or null if the time is taken
+     */
+    public String bookAppointment(Appointment appointment) {
+        Lock stripe = bookingLock(appointment.getDoctorId());
+        stripe.lock();
+        try {
+            if (appointment.getDateTime() != null
+                    && hasConflict(appointment.getDoctorId(), appointment.getDateTime())) {
+                return null;
+            }
+            return scheduleAppointment(appointment);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Update an existing appointment. Moving it to another time or doctor
+     * holds the booking locks of both the previous and the new doctor, and
+     * is refused if the new time conflicts with another appointment.
+     * 
+     * The appointment must be a copy (see {@link Appointment#Appointment(Appointment)}),
+     * not the instance returned by this manager: a refused update then
+     * leaves the stored appointment and the indexes as they were.
+     * 
+     * @param appointment Copy of the appointment with updated data
+     * @return true if update successful; false if not found or the new time is taken
+     * @throws IllegalArgumentException if the stored instance is passed
      */
     public boolean updateAppointment(Appointment appointment) {
-        for (int i = 0; i < appointments.size(); i++) {
-            if (appointments.get(i).getAppointmentId().equals(appointment.getAppointmentId())) {
-                appointments.set(i, appointment);
-                saveData();
-                return true;
+        String appointmentId = appointment.getAppointmentId();
+        while (true) {
+            String previousDoctorId = indexedDoctor(appointmentId);
+            Lock[] stripes = bookingLocks(previousDoctorId, appointment.getDoctorId());
+            for (Lock stripe : stripes) {
+                stripe.lock();
+            }
+            try {
+                // Moved by another update before the locks were taken: lock its new doctor instead
+                if (!Objects.equals(previousDoctorId, indexedDoctor(appointmentId))) {
+                    continue;
+                }
+                return replaceAppointment(appointment);
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    stripes[i].unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace an appointment unless its new place in the doctor's schedule
+     * conflicts. The caller holds the booking locks of its previous and new doctor.
+     * 
+     * @param appointment Appointment with updated data
+     * @return true if replaced
+     */
+    private boolean replaceAppointment(Appointment appointment) {
+        lock.writeLock().lock();
+        try {
+            String appointmentId = appointment.getAppointmentId();
+            Appointment current = appointments.get(appointmentId);
+            if (current == null) {
+                return false;
+            }
+            if (current == appointment) {
+                throw new IllegalArgumentException("Update appointment " + appointmentId
+                        + " with a copy, not the stored instance");
             }
+            // Check when the appointment takes a new place in the schedule
+            String doctorId = scheduleKey(appointment);
+            if (doctorId != null
+                    && (!doctorId.equals(scheduleKey(current))
+                            || !appointment.getDateTime().equals(current.getDateTime()))
+                    && doctorSchedule.anyOtherBetween(doctorId, appointment.getDateTime().minus(SLOT_LENGTH),
+                            appointment.getDateTime().plus(SLOT_LENGTH), appointmentId)) {
+                return false;
+            }
+            appointments.put(appointmentId, appointment);
+            snapshot = null;
+            index(appointment);
+            FileHandler.appendAppointment(Op.UPDATE, appointment);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -68,13 +202,20 @@ public class AppointmentManager {
      * @return true if cancellation successful
      */
     public boolean cancelAppointment(String appointmentId) {
-        Appointment appointment = getAppointmentById(appointmentId);
-        if (appointment != null) {
-            appointment.setStatus(AppointmentStatus.CANCELLED);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Appointment appointment = getAppointmentById(appointmentId);
+            if (appointment != null) {
+                appointment.setStatus(AppointmentStatus.CANCELLED);
+                doctorSchedule.put(appointment);
+                byStatus.put(appointment);
+                FileHandler.updateAppointmentStatus(appointment);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -84,13 +225,20 @@ public class AppointmentManager {
      * @return true if successful
      */
     public boolean completeAppointment(String appointmentId) {
-        Appointment appointment = getAppointmentById(appointmentId);
-        if (appointment != null) {
-            appointment.setStatus(AppointmentStatus.COMPLETED);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Appointment appointment = getAppointmentById(appointmentId);
+            if (appointment != null) {
+                appointment.setStatus(AppointmentStatus.COMPLETED);
+                doctorSchedule.put(appointment);
+                byStatus.put(appointment);
+                FileHandler.updateAppointmentStatus(appointment);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -100,11 +248,22 @@ public class AppointmentManager {
      * @return true if deletion successful
      */
     public boolean deleteAppointment(String appointmentId) {
-        boolean removed = appointments.removeIf(a -> a.getAppointmentId().equals(appointmentId));
-        if (removed) {
-            saveData();
+        lock.writeLock().lock();
+        try {
+            boolean removed = appointments.remove(appointmentId) != null;
+            snapshot = null;
+            if (removed) {
+                byPatient.remove(appointmentId);
+                byDoctor.remove(appointmentId);
+                byDate.remove(appointmentId);
+                doctorSchedule.remove(appointmentId);
+                byStatus.remove(appointmentId);
+                FileHandler.appendAppointmentDeletion(appointmentId);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
     }
 
     /**
@@ -114,19 +273,35 @@ public class AppointmentManager {
      * @return Appointment or null if not found
      */
     public Appointment getAppointmentById(String appointmentId) {
-        return appointments.stream()
-                .filter(a -> a.getAppointmentId().equals(appointmentId))
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return appointments.get(appointmentId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Get all appointments
      * 
-     * @return List of all appointments
+     * @return Read-only list of all appointments, shared between callers until the
+     *         next addition or removal
      */
     public List<Appointment> getAllAppointments() {
-        return new ArrayList<>(appointments);
+        List<Appointment> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            // Writers are excluded while the read lock is held, so the copy is consistent
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(appointments.values()));
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -136,11 +311,12 @@ public class AppointmentManager {
      * @return Appointments on that date
      */
     public List<Appointment> getAppointmentsByDate(LocalDate date) {
-        return appointments.stream()
-                .filter(a -> a.getDateTime() != null &&
-                        a.getDateTime().toLocalDate().equals(date))
-                .sorted((a1, a2) -> a1.getDateTime().compareTo(a2.getDateTime()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byDate.get(date);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -149,7 +325,12 @@ public class AppointmentManager {
      * @return List of today's appointments
      */
     public List<Appointment> getTodaysAppointments() {
-        return getAppointmentsByDate(LocalDate.now());
+        lock.readLock().lock();
+        try {
+            return getAppointmentsByDate(LocalDate.now());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -159,10 +340,12 @@ public class AppointmentManager {
      * @return Patient's appointments
      */
     public List<Appointment> getAppointmentsByPatient(String patientId) {
-        return appointments.stream()
-                .filter(a -> patientId.equals(a.getPatientId()))
-                .sorted((a1, a2) -> a2.getDateTime().compareTo(a1.getDateTime()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byPatient.getDescending(patientId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -172,10 +355,12 @@ public class AppointmentManager {
      * @return Doctor's appointments
      */
     public List<Appointment> getAppointmentsByDoctor(String doctorId) {
-        return appointments.stream()
-                .filter(a -> doctorId.equals(a.getDoctorId()))
-                .sorted((a1, a2) -> a1.getDateTime().compareTo(a2.getDateTime()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byDoctor.get(doctorId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -184,13 +369,13 @@ public class AppointmentManager {
      * @return List of future appointments
      */
     public List<Appointment> getUpcomingAppointments() {
-        LocalDateTime now = LocalDateTime.now();
-        return appointments.stream()
-                .filter(a -> a.getDateTime() != null &&
-                        a.getDateTime().isAfter(now) &&
-                        a.getStatus() == AppointmentStatus.SCHEDULED)
-                .sorted((a1, a2) -> a1.getDateTime().compareTo(a2.getDateTime()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byDate.after(LocalDateTime.now(),
+                    a -> a.getStatus() == AppointmentStatus.SCHEDULED);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -200,27 +385,56 @@ public class AppointmentManager {
      * @return Matching appointments
      */
     public List<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
-        return appointments.stream()
-                .filter(a -> a.getStatus() == status)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return appointments.values().stream()
+                    .filter(a -> a.getStatus() == status)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Check for scheduling conflicts
+     * Check for scheduling conflicts.
+     * A conflict is another scheduled appointment of the doctor starting less
+     * than 30 minutes before or after the proposed time, including across
+     * midnight.
      * 
      * @param doctorId Doctor ID
      * @param dateTime Proposed date/time
      * @return true if conflict exists
      */
     public boolean hasConflict(String doctorId, LocalDateTime dateTime) {
-        return appointments.stream()
-                .anyMatch(a -> doctorId.equals(a.getDoctorId()) &&
-                        a.getStatus() == AppointmentStatus.SCHEDULED &&
-                        a.getDateTime() != null &&
-                        Math.abs(a.getDateTime().toLocalTime().toSecondOfDay() -
-                                dateTime.toLocalTime().toSecondOfDay()) < 1800
-                        &&
-                        a.getDateTime().toLocalDate().equals(dateTime.toLocalDate()));
+        lock.readLock().lock();
+        try {
+            return doctorSchedule.anyBetween(doctorId,
+                    dateTime.minus(SLOT_LENGTH), dateTime.plus(SLOT_LENGTH));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the earliest conflict-free start time for a doctor
+     * 
+     * @param doctorId Doctor ID
+     * @param from     Earliest acceptable date/time
+     * @return First date/time at or after from without a conflict
+     */
+    public LocalDateTime findNextFreeSlot(String doctorId, LocalDateTime from) {
+        lock.readLock().lock();
+        try {
+            LocalDateTime candidate = from;
+            LocalDateTime blocking;
+            while ((blocking = doctorSchedule.latestBetween(doctorId,
+                    candidate.minus(SLOT_LENGTH), candidate.plus(SLOT_LENGTH))) != null) {
+                candidate = blocking.plus(SLOT_LENGTH);
+            }
+            return candidate;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -229,7 +443,12 @@ public class AppointmentManager {
      * @return Total number of appointments
      */
     public int getTotalCount() {
-        return appointments.size();
+        lock.readLock().lock();
+        try {
+            return appointments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -238,7 +457,12 @@ public class AppointmentManager {
      * @return Number of today's appointments
      */
     public int getTodaysCount() {
-        return getTodaysAppointments().size();
+        lock.readLock().lock();
+        try {
+            return byDate.count(LocalDate.now());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -248,25 +472,140 @@ public class AppointmentManager {
      * @return Count of appointments with that status
      */
     public int getCountByStatus(AppointmentStatus status) {
-        return (int) appointments.stream()
-                .filter(a -> a.getStatus() == status)
-                .count();
+        lock.readLock().lock();
+        try {
+            return byStatus.count(status);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Save data to file
+     * Reload data from file
      */
-    private void saveData() {
-        FileHandler.saveAppointments(appointments);
+    public void reloadData() {
+        lock.writeLock().lock();
+        try {
+            this.appointments = indexById(FileHandler.loadAppointments());
+            IDGenerator.advancePast(appointments.keySet());
+            snapshot = null;
+            rebuildIndexes();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Reload data from file
+     * Index a new or changed appointment
+     * 
+     * @param appointment Appointment in its current state
      */
-    public void reloadData() {
-        this.appointments = FileHandler.loadAppointments();
-        if (this.appointments == null) {
-            this.appointments = new ArrayList<>();
+    private void index(Appointment appointment) {
+        byPatient.put(appointment);
+        byDoctor.put(appointment);
+        byDate.put(appointment);
+        doctorSchedule.put(appointment);
+        byStatus.put(appointment);
+    }
+
+    /**
+     * Rebuild the secondary indexes from the loaded appointments
+     */
+    private void rebuildIndexes() {
+        byPatient.rebuild(appointments.values());
+        byDoctor.rebuild(appointments.values());
+        byDate.rebuild(appointments.values());
+        doctorSchedule.rebuild(appointments.values());
+        byStatus.rebuild(appointments.values());
+    }
+
+    /**
+     * Get the booking lock of a doctor's stripe
+     * 
+     * @param doctorId Doctor ID, may be null
+     * @return Stripe lock
+     */
+    private Lock bookingLock(String doctorId) {
+        return bookingLocks[stripe(doctorId)];
+    }
+
+    /**
+     * Get the booking locks of two doctors' stripes, in the order they must
+     * be taken to avoid deadlock
+     * 
+     * @param first  Doctor ID, may be null
+     * @param second Doctor ID, may be null
+     * @return One lock if both share a stripe, otherwise two in stripe order
+     */
+    private Lock[] bookingLocks(String first, String second) {
+        int a = stripe(first);
+        int b = stripe(second);
+        if (a == b) {
+            return new Lock[] { bookingLocks[a] };
+        }
+        return new Lock[] { bookingLocks[Math.min(a, b)], bookingLocks[Math.max(a, b)] };
+    }
+
+    private static int stripe(String doctorId) {
+        int hash = doctorId == null ? 0 : doctorId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), BOOKING_STRIPES);
+    }
+
+    /**
+     * Get the doctor an appointment is currently indexed under
+     * 
+     * @param appointmentId Appointment ID
+     * @return Doctor ID, or null if unknown or without doctor
+     */
+    private String indexedDoctor(String appointmentId) {
+        lock.readLock().lock();
+        try {
+            return byDoctor.keyOf(appointmentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Create the striped booking locks
+     * 
+     * @return One lock per stripe
+     */
+    private static Lock[] createBookingLocks() {
+        Lock[] locks = new Lock[BOOKING_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Get the doctor schedule key: only scheduled appointments with a time
+     * take part in conflict checks
+     * 
+     * @param appointment Appointment
+     * @return Doctor ID, or null if the appointment is not indexed
+     */
+    private static String scheduleKey(Appointment appointment) {
+        if (appointment.getStatus() != AppointmentStatus.SCHEDULED || appointment.getDateTime() == null) {
+            return null;
+        }
+        return appointment.getDoctorId();
+    }
+
+    /**
+     * Build the ID index of a loaded list
+     * 
+     * @param list Loaded appointments, may be null
+     * @return Appointments keyed by ID, in list order
+     */
+    private static Map<String, Appointment> indexById(List<Appointment> list) {
+        Map<String, Appointment> index = new LinkedHashMap<>();
+        if (list != null) {
+            for (Appointment appointment : list) {
+                index.put(appointment.getAppointmentId(), appointment);
+            }
         }
+        return index;
     }
 }
@@ -5,10 +5,19 @@ import models.Bill.BillItem;
 import models.Bill.BillStatus;
 import utils.FileHandler;
 import utils.IDGenerator;
+import utils.index.SecondaryIndex;
+import utils.index.Tally;
+import utils.storage.Journal.Op;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -17,16 +26,37 @@ import java.util.stream.Collectors;
  */
 public class BillingManager {
 
-    private List<Bill> bills;
+    // Keyed by ID; insertion order is kept for listings
+    private Map<String, Bill> bills;
+
+    // Guards the map and indexes; queries share the read lock, mutations take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Read-only list handed out by getAllBills; dropped whenever bills are
+    // added, replaced or removed, and rebuilt by the next reader
+    private volatile List<Bill> snapshot;
+
+    // Bills per patient, ordered by generation date
+    private final SecondaryIndex<Bill, LocalDateTime> byPatient = new SecondaryIndex<>(
+            Bill::getBillId, Bill::getPatientId, Bill::getDateGenerated);
+
+    // Running totals for the dashboard: bills and amounts per status,
+    // outstanding balances, and revenue per payment day
+    private final Tally<Bill, BillStatus> byStatus = new Tally<>(
+            Bill::getBillId, Bill::getStatus, Bill::getTotalAmount);
+    private final Tally<Bill, BillStatus> outstanding = new Tally<>(
+            Bill::getBillId, b -> isPending(b) ? b.getStatus() : null, Bill::getBalance);
+    private final Tally<Bill, LocalDate> paidByDay = new Tally<>(
+            Bill::getBillId, BillingManager::paidDay, Bill::getTotalAmount);
 
     /**
      * Constructor - loads bills from file
      */
     public BillingManager() {
-        this.bills = FileHandler.loadBills();
-        if (this.bills == null) {
-            this.bills = new ArrayList<>();
-        }
+        this.bills = indexById(FileHandler.loadBills());
+        IDGenerator.advancePast(bills.keySet());
+        rebuildIndexes();
+        FileHandler.registerBillSource(this::getAllBills, lock.readLock());
     }
 
     /**
@@ -37,11 +67,18 @@ public class BillingManager {
      * @return Generated bill
      */
     public Bill createBill(String patientId, String patientName) {
-        String billId = IDGenerator.generateBillId();
-        Bill bill = new Bill(billId, patientId, patientName);
-        bills.add(bill);
-        saveData();
-        return bill;
+        lock.writeLock().lock();
+        try {
+            String billId = IDGenerator.generateBillId();
+            Bill bill = new Bill(billId, patientId, patientName);
+            bills.put(bill.getBillId(), bill);
+            snapshot = null;
+            index(bill);
+            FileHandler.appendBill(Op.ADD, bill);
+            return bill;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -52,13 +89,19 @@ public class BillingManager {
      * @return true if successful
      */
     public boolean addItemToBill(String billId, BillItem item) {
-        Bill bill = getBillById(billId);
-        if (bill != null) {
-            bill.addItem(item);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Bill bill = getBillById(billId);
+            if (bill != null) {
+                bill.addItem(item);
+                index(bill);
+                FileHandler.appendBill(Op.UPDATE, bill);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -70,13 +113,19 @@ public class BillingManager {
      * @return true if successful
      */
     public boolean processPayment(String billId, double amount, String paymentMethod) {
-        Bill bill = getBillById(billId);
-        if (bill != null) {
-            bill.processPayment(amount, paymentMethod);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Bill bill = getBillById(billId);
+            if (bill != null) {
+                bill.processPayment(amount, paymentMethod);
+                index(bill);
+                FileHandler.updateBillPayment(bill);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -87,13 +136,19 @@ public class BillingManager {
      * @return true if successful
      */
     public boolean applyDiscount(String billId, double discount) {
-        Bill bill = getBillById(billId);
-        if (bill != null) {
-            bill.setDiscount(discount);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Bill bill = getBillById(billId);
+            if (bill != null) {
+                bill.setDiscount(discount);
+                index(bill);
+                FileHandler.appendBill(Op.UPDATE, bill);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -103,13 +158,19 @@ public class BillingManager {
      * @return true if successful
      */
     public boolean cancelBill(String billId) {
-        Bill bill = getBillById(billId);
-        if (bill != null) {
-            bill.setStatus(BillStatus.CANCELLED);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Bill bill = getBillById(billId);
+            if (bill != null) {
+                bill.setStatus(BillStatus.CANCELLED);
+                index(bill);
+                FileHandler.updateBillPayment(bill);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -119,11 +180,21 @@ public class BillingManager {
      * @return true if successful
      */
     public boolean deleteBill(String billId) {
-        boolean removed = bills.removeIf(b -> b.getBillId().equals(billId));
-        if (removed) {
-            saveData();
+        lock.writeLock().lock();
+        try {
+            boolean removed = bills.remove(billId) != null;
+            snapshot = null;
+            if (removed) {
+                byPatient.remove(billId);
+                byStatus.remove(billId);
+                outstanding.remove(billId);
+                paidByDay.remove(billId);
+                FileHandler.appendBillDeletion(billId);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
     }
 
     /**
@@ -133,14 +204,19 @@ public class BillingManager {
      * @return true if successful
      */
     public boolean updateBill(Bill bill) {
-        for (int i = 0; i < bills.size(); i++) {
-            if (bills.get(i).getBillId().equals(bill.getBillId())) {
-                bills.set(i, bill);
-                saveData();
-                return true;
+        lock.writeLock().lock();
+        try {
+            if (!bills.containsKey(bill.getBillId())) {
+                return false;
             }
+            bills.put(bill.getBillId(), bill);
+            snapshot = null;
+            index(bill);
+            FileHandler.appendBill(Op.UPDATE, bill);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -150,19 +226,35 @@ public class BillingManager {
      * @return Bill or null if not found
      */
     public Bill getBillById(String billId) {
-        return bills.stream()
-                .filter(b -> b.getBillId().equals(billId))
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return bills.get(billId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Get all bills
      * 
-     * @return List of all bills
+     * @return Read-only list of all bills, shared between callers until the
+     *         next addition or removal
      */
     public List<Bill> getAllBills() {
-        return new ArrayList<>(bills);
+        List<Bill> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            // Writers are excluded while the read lock is held, so the copy is consistent
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(bills.values()));
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -172,9 +264,12 @@ public class BillingManager {
      * @return Patient's bills
      */
     public List<Bill> getBillsByPatient(String patientId) {
-        return bills.stream()
-                .filter(b -> patientId.equals(b.getPatientId()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byPatient.get(patientId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -184,9 +279,14 @@ public class BillingManager {
      * @return Matching bills
      */
     public List<Bill> getBillsByStatus(BillStatus status) {
-        return bills.stream()
-                .filter(b -> b.getStatus() == status)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return bills.values().stream()
+                    .filter(b -> b.getStatus() == status)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -195,10 +295,14 @@ public class BillingManager {
      * @return List of pending bills
      */
     public List<Bill> getPendingBills() {
-        return bills.stream()
-                .filter(b -> b.getStatus() == BillStatus.PENDING ||
-                        b.getStatus() == BillStatus.PARTIALLY_PAID)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return bills.values().stream()
+                    .filter(BillingManager::isPending)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -207,11 +311,16 @@ public class BillingManager {
      * @return List of bills generated today
      */
     public List<Bill> getTodaysBills() {
-        LocalDate today = LocalDate.now();
-        return bills.stream()
-                .filter(b -> b.getDateGenerated() != null &&
-                        b.getDateGenerated().toLocalDate().equals(today))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            LocalDate today = LocalDate.now();
+            return bills.values().stream()
+                    .filter(b -> b.getDateGenerated() != null &&
+                            b.getDateGenerated().toLocalDate().equals(today))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -220,10 +329,12 @@ public class BillingManager {
      * @return Total revenue from paid bills
      */
     public double getTotalRevenue() {
-        return bills.stream()
-                .filter(b -> b.getStatus() == BillStatus.PAID)
-                .mapToDouble(Bill::getTotalAmount)
-                .sum();
+        lock.readLock().lock();
+        try {
+            return byStatus.sum(BillStatus.PAID);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -232,13 +343,12 @@ public class BillingManager {
      * @return Revenue from bills paid today
      */
     public double getTodaysRevenue() {
-        LocalDate today = LocalDate.now();
-        return bills.stream()
-                .filter(b -> b.getStatus() == BillStatus.PAID &&
-                        b.getDatePaid() != null &&
-                        b.getDatePaid().toLocalDate().equals(today))
-                .mapToDouble(Bill::getTotalAmount)
-                .sum();
+        lock.readLock().lock();
+        try {
+            return paidByDay.sum(LocalDate.now());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -247,11 +357,26 @@ public class BillingManager {
      * @return Total pending amount
      */
     public double getPendingAmount() {
-        return bills.stream()
-                .filter(b -> b.getStatus() == BillStatus.PENDING ||
-                        b.getStatus() == BillStatus.PARTIALLY_PAID)
-                .mapToDouble(Bill::getBalance)
-                .sum();
+        lock.readLock().lock();
+        try {
+            return outstanding.sum(BillStatus.PENDING) + outstanding.sum(BillStatus.PARTIALLY_PAID);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get number of pending bills
+     * 
+     * @return Count of pending and partially paid bills
+     */
+    public int getPendingCount() {
+        lock.readLock().lock();
+        try {
+            return byStatus.count(BillStatus.PENDING) + byStatus.count(BillStatus.PARTIALLY_PAID);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -260,7 +385,12 @@ public class BillingManager {
      * @return Total number of bills
      */
     public int getTotalCount() {
-        return bills.size();
+        lock.readLock().lock();
+        try {
+            return bills.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -270,25 +400,87 @@ public class BillingManager {
      * @return Count
      */
     public int getCountByStatus(BillStatus status) {
-        return (int) bills.stream()
-                .filter(b -> b.getStatus() == status)
-                .count();
+        lock.readLock().lock();
+        try {
+            return byStatus.count(status);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Save data to file
+     * Reload data from file
      */
-    private void saveData() {
-        FileHandler.saveBills(bills);
+    public void reloadData() {
+        lock.writeLock().lock();
+        try {
+            this.bills = indexById(FileHandler.loadBills());
+            IDGenerator.advancePast(bills.keySet());
+            snapshot = null;
+            rebuildIndexes();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Reload data from file
+     * Index a new or changed bill
+     * 
+     * @param bill Bill in its current state
      */
-    public void reloadData() {
-        this.bills = FileHandler.loadBills();
-        if (this.bills == null) {
-            this.bills = new ArrayList<>();
+    private void index(Bill bill) {
+        byPatient.put(bill);
+        byStatus.put(bill);
+        outstanding.put(bill);
+        paidByDay.put(bill);
+    }
+
+    /**
+     * Rebuild the indexes and totals from the loaded bills
+     */
+    private void rebuildIndexes() {
+        byPatient.rebuild(bills.values());
+        byStatus.rebuild(bills.values());
+        outstanding.rebuild(bills.values());
+        paidByDay.rebuild(bills.values());
+    }
+
+    /**
+     * Check whether a bill still has money owing
+     * 
+     * @param bill Bill
+     * @return true if pending or partially paid
+     */
+    private static boolean isPending(Bill bill) {
+        return bill.getStatus() == BillStatus.PENDING || bill.getStatus() == BillStatus.PARTIALLY_PAID;
+    }
+
+    /**
+     * Get the day a paid bill counts towards revenue
+     * 
+     * @param bill Bill
+     * @return Payment date, or null if the bill is not paid
+     */
+    private static LocalDate paidDay(Bill bill) {
+        if (bill.getStatus() != BillStatus.PAID || bill.getDatePaid() == null) {
+            return null;
+        }
+        return bill.getDatePaid().toLocalDate();
+    }
+
+    /**
+     * Build the ID index of a loaded list
+     * 
+     * @param list Loaded bills, may be null
+     * @return Bills keyed by ID, in list order
+     */
+    private static Map<String, Bill> indexById(List<Bill> list) {
+        Map<String, Bill> index = new LinkedHashMap<>();
+        if (list != null) {
+            for (Bill bill : list) {
+                index.put(bill.getBillId(), bill);
+            }
         }
+        return index;
     }
 }
@@ -3,9 +3,17 @@ package managers;
 import models.Doctor;
 import utils.FileHandler;
 import utils.IDGenerator;
+import utils.index.Tally;
+import utils.index.TrigramIndex;
+import utils.storage.Journal.Op;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -14,16 +22,32 @@ import java.util.stream.Collectors;
  */
 public class DoctorManager {
 
-    private List<Doctor> doctors;
+    // Keyed by ID; insertion order is kept for listings
+    private Map<String, Doctor> doctors;
+
+    // Guards the map and indexes; queries share the read lock, mutations take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Read-only list handed out by getAllDoctors; dropped whenever doctors are
+    // added, replaced or removed, and rebuilt by the next reader
+    private volatile List<Doctor> snapshot;
+
+    // Substring index over names
+    private final TrigramIndex<Doctor> byName = new TrigramIndex<>(Doctor::getDoctorId, Doctor::getName);
+
+    // Doctors per department
+    private final Tally<Doctor, String> byDepartment = new Tally<>(
+            Doctor::getDoctorId, Doctor::getDepartment);
 
     /**
      * Constructor - loads doctors from file
      */
     public DoctorManager() {
-        this.doctors = FileHandler.loadDoctors();
-        if (this.doctors == null) {
-            this.doctors = new ArrayList<>();
-        }
+        this.doctors = indexById(FileHandler.loadDoctors());
+        IDGenerator.advancePast(doctors.keySet());
+        byName.rebuild(doctors.values());
+        byDepartment.rebuild(doctors.values());
+        FileHandler.registerDoctorSource(this::getAllDoctors, lock.readLock());
     }
 
     /**
@@ -33,12 +57,20 @@ public class DoctorManager {
      * @return Generated doctor ID
      */
     public String addDoctor(Doctor doctor) {
-        String doctorId = IDGenerator.generateDoctorId();
-        doctor.setDoctorId(doctorId);
-        doctor.setId(doctorId);
-        doctors.add(doctor);
-        saveData();
-        return doctorId;
+        lock.writeLock().lock();
+        try {
+            String doctorId = IDGenerator.generateDoctorId();
+            doctor.setDoctorId(doctorId);
+            doctor.setId(doctorId);
+            doctors.put(doctor.getDoctorId(), doctor);
+            snapshot = null;
+            byName.put(doctor);
+            byDepartment.put(doctor);
+            FileHandler.appendDoctor(Op.ADD, doctor);
+            return doctorId;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -48,14 +80,20 @@ public class DoctorManager {
      * @return true if update successful
      */
     public boolean updateDoctor(Doctor doctor) {
-        for (int i = 0; i < doctors.size(); i++) {
-            if (doctors.get(i).getDoctorId().equals(doctor.getDoctorId())) {
-                doctors.set(i, doctor);
-                saveData();
-                return true;
+        lock.writeLock().lock();
+        try {
+            if (!doctors.containsKey(doctor.getDoctorId())) {
+                return false;
             }
+            doctors.put(doctor.getDoctorId(), doctor);
+            snapshot = null;
+            byName.put(doctor);
+            byDepartment.put(doctor);
+            FileHandler.appendDoctor(Op.UPDATE, doctor);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -65,11 +103,19 @@ public class DoctorManager {
      * @return true if deletion successful
      */
     public boolean deleteDoctor(String doctorId) {
-        boolean removed = doctors.removeIf(d -> d.getDoctorId().equals(doctorId));
-        if (removed) {
-            saveData();
+        lock.writeLock().lock();
+        try {
+            boolean removed = doctors.remove(doctorId) != null;
+            snapshot = null;
+            if (removed) {
+                byName.remove(doctorId);
+                byDepartment.remove(doctorId);
+                FileHandler.appendDoctorDeletion(doctorId);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
     }
 
     /**
@@ -79,19 +125,35 @@ public class DoctorManager {
      * @return Doctor or null if not found
      */
     public Doctor getDoctorById(String doctorId) {
-        return doctors.stream()
-                .filter(d -> d.getDoctorId().equals(doctorId))
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return doctors.get(doctorId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Get all doctors
      * 
-     * @return List of all doctors
+     * @return Read-only list of all doctors, shared between callers until the
+     *         next addition or removal
      */
     public List<Doctor> getAllDoctors() {
-        return new ArrayList<>(doctors);
+        List<Doctor> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            // Writers are excluded while the read lock is held, so the copy is consistent
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(doctors.values()));
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -101,10 +163,45 @@ public class DoctorManager {
      * @return Matching doctors
      */
     public List<Doctor> searchByName(String name) {
-        String searchTerm = name.toLowerCase();
-        return doctors.stream()
-                .filter(d -> d.getName().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byName.search(name, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search doctors by name, stopping after a number of matches
+     * 
+     * @param name  Name to search (case-insensitive, partial match)
+     * @param limit Maximum number of results
+     * @return Matching doctors
+     */
+    public List<Doctor> searchByName(String name, int limit) {
+        lock.readLock().lock();
+        try {
+            return byName.search(name, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search doctors by name, best matches first: names starting with the
+     * query, then names with a word starting with it, then the rest
+     * 
+     * @param name  Name to search (case-insensitive, partial match)
+     * @param limit Maximum number of results
+     * @return Up to limit matching doctors
+     */
+    public List<Doctor> searchByRelevance(String name, int limit) {
+        lock.readLock().lock();
+        try {
+            return byName.searchByRelevance(name, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -114,9 +211,14 @@ public class DoctorManager {
      * @return Matching doctors
      */
     public List<Doctor> getBySpecialization(String specialization) {
-        return doctors.stream()
-                .filter(d -> specialization.equalsIgnoreCase(d.getSpecialization()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return doctors.values().stream()
+                    .filter(d -> specialization.equalsIgnoreCase(d.getSpecialization()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -126,9 +228,14 @@ public class DoctorManager {
      * @return Matching doctors
      */
     public List<Doctor> getByDepartment(String department) {
-        return doctors.stream()
-                .filter(d -> department.equalsIgnoreCase(d.getDepartment()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return doctors.values().stream()
+                    .filter(d -> department.equalsIgnoreCase(d.getDepartment()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -137,11 +244,16 @@ public class DoctorManager {
      * @return List of unique specializations
      */
     public List<String> getAllSpecializations() {
-        return doctors.stream()
-                .map(Doctor::getSpecialization)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return doctors.values().stream()
+                    .map(Doctor::getSpecialization)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -150,11 +262,28 @@ public class DoctorManager {
      * @return List of unique departments
      */
     public List<String> getAllDepartments() {
-        return doctors.stream()
-                .map(Doctor::getDepartment)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byDepartment.keys().stream()
+                    .sorted()
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get number of departments with at least one doctor
+     * 
+     * @return Department count
+     */
+    public int getDepartmentCount() {
+        lock.readLock().lock();
+        try {
+            return byDepartment.keys().size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -163,7 +292,12 @@ public class DoctorManager {
      * @return Total number of doctors
      */
     public int getTotalCount() {
-        return doctors.size();
+        lock.readLock().lock();
+        try {
+            return doctors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -173,9 +307,14 @@ public class DoctorManager {
      * @return Available doctors
      */
     public List<Doctor> getAvailableOn(String day) {
-        return doctors.stream()
-                .filter(d -> d.isAvailableOn(day))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return doctors.values().stream()
+                    .filter(d -> d.isAvailableOn(day))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -186,29 +325,49 @@ public class DoctorManager {
      * @return true if successful
      */
     public boolean addPatientToDoctor(String doctorId, String patientId) {
-        Doctor doctor = getDoctorById(doctorId);
-        if (doctor != null) {
-            doctor.addPatient(patientId);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Doctor doctor = getDoctorById(doctorId);
+            if (doctor != null) {
+                doctor.addPatient(patientId);
+                FileHandler.appendDoctor(Op.UPDATE, doctor);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
-     * Save data to file
+     * Reload data from file
      */
-    private void saveData() {
-        FileHandler.saveDoctors(doctors);
+    public void reloadData() {
+        lock.writeLock().lock();
+        try {
+            this.doctors = indexById(FileHandler.loadDoctors());
+            IDGenerator.advancePast(doctors.keySet());
+            snapshot = null;
+            byName.rebuild(doctors.values());
+            byDepartment.rebuild(doctors.values());
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Reload data from file
+     * Build the ID index of a loaded list
+     * 
+     * @param list Loaded doctors, may be null
+     * @return Doctors keyed by ID, in list order
      */
-    public void reloadData() {
-        this.doctors = FileHandler.loadDoctors();
-        if (this.doctors == null) {
-            this.doctors = new ArrayList<>();
+    private static Map<String, Doctor> indexById(List<Doctor> list) {
+        Map<String, Doctor> index = new LinkedHashMap<>();
+        if (list != null) {
+            for (Doctor doctor : list) {
+                index.put(doctor.getDoctorId(), doctor);
+            }
         }
+        return index;
     }
 }
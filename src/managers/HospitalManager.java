@@ -6,6 +6,10 @@ import utils.FileHandler;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Hospital Manager - Singleton class that manages the entire hospital system.
@@ -13,18 +17,25 @@ import java.util.List;
  * 
  * This class coordinates all sub-managers and provides centralized access
  * to hospital-wide statistics and operations.
+ *
+ * The sub-managers are loaded concurrently on a small background pool. Each
+ * one has a readiness future; its getter only blocks until that particular
+ * manager has finished loading.
  */
 public class HospitalManager {
 
     // Singleton instance
     private static HospitalManager instance;
 
-    // Sub-managers
-    private PatientManager patientManager;
-    private DoctorManager doctorManager;
-    private AppointmentManager appointmentManager;
-    private BillingManager billingManager;
-    private RoomManager roomManager;
+    // Bounded pool used to load the sub-managers at startup
+    private static final int LOADER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // Sub-managers, completed once loaded
+    private CompletableFuture<PatientManager> patientManagerReady;
+    private CompletableFuture<DoctorManager> doctorManagerReady;
+    private CompletableFuture<AppointmentManager> appointmentManagerReady;
+    private CompletableFuture<BillingManager> billingManagerReady;
+    private CompletableFuture<RoomManager> roomManagerReady;
 
     // Hospital information
     private String hospitalName;
@@ -58,26 +69,39 @@ public class HospitalManager {
     }
 
     /**
-     * Initialize all sub-managers
+     * Start loading all sub-managers in the background
      */
     private void initializeManagers() {
         FileHandler.initializeDataDirectory();
-        this.patientManager = new PatientManager();
-        this.doctorManager = new DoctorManager();
-        this.appointmentManager = new AppointmentManager();
-        this.billingManager = new BillingManager();
-        this.roomManager = new RoomManager();
-
-        // Initialize sample data if empty
-        if (doctorManager.getTotalCount() == 0) {
-            initializeSampleData();
-        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "manager-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<PatientManager> patients = CompletableFuture.supplyAsync(PatientManager::new, loader);
+        CompletableFuture<DoctorManager> doctors = CompletableFuture.supplyAsync(DoctorManager::new, loader);
+        this.appointmentManagerReady = CompletableFuture.supplyAsync(AppointmentManager::new, loader);
+        this.billingManagerReady = CompletableFuture.supplyAsync(BillingManager::new, loader);
+        this.roomManagerReady = CompletableFuture.supplyAsync(RoomManager::new, loader);
+
+        // Initialize sample data if empty; doctors and patients are only ready after that
+        CompletableFuture<Void> sampleData = doctors.thenAcceptBoth(patients, (doctorManager, patientManager) -> {
+            if (doctorManager.getTotalCount() == 0) {
+                initializeSampleData(doctorManager, patientManager);
+            }
+        });
+        this.doctorManagerReady = sampleData.thenCompose(v -> doctors);
+        this.patientManagerReady = sampleData.thenCompose(v -> patients);
+
+        whenAllReady().whenComplete((v, e) -> loader.shutdown());
     }
 
     /**
      * Initialize sample data for demonstration
      */
-    private void initializeSampleData() {
+    private void initializeSampleData(DoctorManager doctorManager, PatientManager patientManager) {
         // Add sample doctors
         String[] specializations = { "Cardiology", "Neurology", "Orthopedics", "Pediatrics",
                 "Dermatology", "Ophthalmology", "ENT", "General Medicine" };
@@ -129,23 +153,55 @@ public class HospitalManager {
     // ==================== GETTERS FOR MANAGERS ====================
 
     public PatientManager getPatientManager() {
-        return patientManager;
+        return patientManagerReady.join();
     }
 
     public DoctorManager getDoctorManager() {
-        return doctorManager;
+        return doctorManagerReady.join();
     }
 
     public AppointmentManager getAppointmentManager() {
-        return appointmentManager;
+        return appointmentManagerReady.join();
     }
 
     public BillingManager getBillingManager() {
-        return billingManager;
+        return billingManagerReady.join();
     }
 
     public RoomManager getRoomManager() {
-        return roomManager;
+        return roomManagerReady.join();
+    }
+
+    // ==================== READINESS ====================
+
+    public CompletableFuture<PatientManager> getPatientManagerReady() {
+        return patientManagerReady;
+    }
+
+    public CompletableFuture<DoctorManager> getDoctorManagerReady() {
+        return doctorManagerReady;
+    }
+
+    public CompletableFuture<AppointmentManager> getAppointmentManagerReady() {
+        return appointmentManagerReady;
+    }
+
+    public CompletableFuture<BillingManager> getBillingManagerReady() {
+        return billingManagerReady;
+    }
+
+    public CompletableFuture<RoomManager> getRoomManagerReady() {
+        return roomManagerReady;
+    }
+
+    /**
+     * Get a future completed once every sub-manager has loaded
+     * 
+     * @return Combined readiness future
+     */
+    public CompletableFuture<Void> whenAllReady() {
+        return CompletableFuture.allOf(patientManagerReady, doctorManagerReady,
+                appointmentManagerReady, billingManagerReady, roomManagerReady);
     }
 
     // ==================== HOSPITAL INFO ====================
@@ -188,63 +244,77 @@ public class HospitalManager {
      * Get total patient count
      */
     public int getTotalPatients() {
-        return patientManager.getTotalCount();
+        return getPatientManager().getTotalCount();
     }
 
     /**
      * Get total doctor count
      */
     public int getTotalDoctors() {
-        return doctorManager.getTotalCount();
+        return getDoctorManager().getTotalCount();
     }
 
     /**
      * Get today's appointment count
      */
     public int getTodaysAppointments() {
-        return appointmentManager.getTodaysCount();
+        return getAppointmentManager().getTodaysCount();
     }
 
     /**
      * Get available room count
      */
     public int getAvailableRooms() {
-        return roomManager.getAvailableCount();
+        return getRoomManager().getAvailableCount();
     }
 
     /**
      * Get admitted patient count
      */
     public int getAdmittedPatients() {
-        return patientManager.getAdmittedCount();
+        return getPatientManager().getAdmittedCount();
     }
 
     /**
      * Get today's revenue
      */
     public double getTodaysRevenue() {
-        return billingManager.getTodaysRevenue();
+        return getBillingManager().getTodaysRevenue();
     }
 
     /**
      * Get pending bills amount
      */
     public double getPendingBillsAmount() {
-        return billingManager.getPendingAmount();
+        return getBillingManager().getPendingAmount();
+    }
+
+    /**
+     * Get number of pending bills
+     */
+    public int getPendingBillCount() {
+        return getBillingManager().getPendingCount();
+    }
+
+    /**
+     * Get number of active departments
+     */
+    public int getActiveDepartments() {
+        return getDoctorManager().getDepartmentCount();
     }
 
     /**
      * Get room occupancy rate
      */
     public double getRoomOccupancyRate() {
-        return roomManager.getOccupancyRate();
+        return getRoomManager().getOccupancyRate();
     }
 
     /**
      * Get all specializations
      */
     public List<String> getSpecializations() {
-        return doctorManager.getAllSpecializations();
+        return getDoctorManager().getAllSpecializations();
     }
 
     // ==================== UTILITY METHODS ====================
@@ -253,11 +323,20 @@ public class HospitalManager {
      * Reload all data from files
      */
     public void reloadAllData() {
-        patientManager.reloadData();
-        doctorManager.reloadData();
-        appointmentManager.reloadData();
-        billingManager.reloadData();
-        roomManager.reloadData();
+        getPatientManager().reloadData();
+        getDoctorManager().reloadData();
+        getAppointmentManager().reloadData();
+        getBillingManager().reloadData();
+        getRoomManager().reloadData();
+    }
+
+    /**
+     * Write all pending changes to disk now
+     * 
+     * @return Future completed once every change made so far is durable
+     */
+    public CompletableFuture<Void> sync() {
+        return FileHandler.flush();
     }
 
     /**
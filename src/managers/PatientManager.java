@@ -3,10 +3,18 @@ package managers;
 import models.Patient;
 import utils.FileHandler;
 import utils.IDGenerator;
+import utils.index.Tally;
+import utils.index.TrigramIndex;
+import utils.storage.Journal.Op;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -15,16 +23,36 @@ import java.util.stream.Collectors;
  */
 public class PatientManager {
 
-    private List<Patient> patients;
+    // Keyed by ID; insertion order is kept for listings
+    private Map<String, Patient> patients;
+
+    // Guards the map and indexes; queries share the read lock, mutations take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Read-only list handed out by getAllPatients; dropped whenever patients are
+    // added, replaced or removed, and rebuilt by the next reader
+    private volatile List<Patient> snapshot;
+
+    // Substring index over names
+    private final TrigramIndex<Patient> byName = new TrigramIndex<>(Patient::getPatientId, Patient::getName);
+
+    // Substring index over phone digits (own and emergency contact)
+    private final TrigramIndex<Patient> byPhone = new TrigramIndex<>(Patient::getPatientId, PatientManager::phoneDigits);
+
+    // Currently admitted patients
+    private final Tally<Patient, Boolean> admitted = new Tally<>(
+            Patient::getPatientId, p -> p.isAdmitted() ? Boolean.TRUE : null);
 
     /**
      * Constructor - loads patients from file
      */
     public PatientManager() {
-        this.patients = FileHandler.loadPatients();
-        if (this.patients == null) {
-            this.patients = new ArrayList<>();
-        }
+        this.patients = indexById(FileHandler.loadPatients());
+        IDGenerator.advancePast(patients.keySet());
+        byName.rebuild(patients.values());
+        byPhone.rebuild(patients.values());
+        admitted.rebuild(patients.values());
+        FileHandler.registerPatientSource(this::getAllPatients, lock.readLock());
     }
 
     /**
@@ -34,12 +62,21 @@ public class PatientManager {
      * @return Generated patient ID
      */
     public String addPatient(Patient patient) {
-        String patientId = IDGenerator.generatePatientId();
-        patient.setPatientId(patientId);
-        patient.setId(patientId);
-        patients.add(patient);
-        saveData();
-        return patientId;
+        lock.writeLock().lock();
+        try {
+            String patientId = IDGenerator.generatePatientId();
+            patient.setPatientId(patientId);
+            patient.setId(patientId);
+            patients.put(patient.getPatientId(), patient);
+            snapshot = null;
+            byName.put(patient);
+            byPhone.put(patient);
+            admitted.put(patient);
+            FileHandler.appendPatient(Op.ADD, patient);
+            return patientId;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -49,14 +86,21 @@ public class PatientManager {
      * @return true if update successful
      */
     public boolean updatePatient(Patient patient) {
-        for (int i = 0; i < patients.size(); i++) {
-            if (patients.get(i).getPatientId().equals(patient.getPatientId())) {
-                patients.set(i, patient);
-                saveData();
-                return true;
+        lock.writeLock().lock();
+        try {
+            if (!patients.containsKey(patient.getPatientId())) {
+                return false;
             }
+            patients.put(patient.getPatientId(), patient);
+            snapshot = null;
+            byName.put(patient);
+            byPhone.put(patient);
+            admitted.put(patient);
+            FileHandler.appendPatient(Op.UPDATE, patient);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -66,11 +110,20 @@ public class PatientManager {
      * @return true if deletion successful
      */
     public boolean deletePatient(String patientId) {
-        boolean removed = patients.removeIf(p -> p.getPatientId().equals(patientId));
-        if (removed) {
-            saveData();
+        lock.writeLock().lock();
+        try {
+            boolean removed = patients.remove(patientId) != null;
+            snapshot = null;
+            if (removed) {
+                byName.remove(patientId);
+                byPhone.remove(patientId);
+                admitted.remove(patientId);
+                FileHandler.appendPatientDeletion(patientId);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
     }
 
     /**
@@ -80,19 +133,35 @@ public class PatientManager {
      * @return Patient or null if not found
      */
     public Patient getPatientById(String patientId) {
-        return patients.stream()
-                .filter(p -> p.getPatientId().equals(patientId))
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return patients.get(patientId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Get all patients
      * 
-     * @return List of all patients
+     * @return Read-only list of all patients, shared between callers until the
+     *         next addition or removal
      */
     public List<Patient> getAllPatients() {
-        return new ArrayList<>(patients);
+        List<Patient> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            // Writers are excluded while the read lock is held, so the copy is consistent
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(patients.values()));
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -102,22 +171,66 @@ public class PatientManager {
      * @return Matching patients
      */
     public List<Patient> searchByName(String name) {
-        String searchTerm = name.toLowerCase();
-        return patients.stream()
-                .filter(p -> p.getName().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byName.search(name, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Search patients by phone
+     * Search patients by name, stopping after a number of matches
      * 
-     * @param phone Phone number to search
+     * @param name  Name to search (case-insensitive, partial match)
+     * @param limit Maximum number of results
+     * @return Matching patients
+     */
+    public List<Patient> searchByName(String name, int limit) {
+        lock.readLock().lock();
+        try {
+            return byName.search(name, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search patients by name, best matches first: names starting with the
+     * query, then names with a word starting with it, then the rest
+     * 
+     * @param name  Name to search (case-insensitive, partial match)
+     * @param limit Maximum number of results
+     * @return Up to limit matching patients
+     */
+    public List<Patient> searchByRelevance(String name, int limit) {
+        lock.readLock().lock();
+        try {
+            return byName.searchByRelevance(name, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search patients by phone.
+     * Matches any part of the patient's or emergency contact's number, digits
+     * only, so "98765" finds "+91 98765-43210".
+     * 
+     * @param phone Phone number or part of it
      * @return Matching patients
      */
     public List<Patient> searchByPhone(String phone) {
-        return patients.stream()
-                .filter(p -> p.getPhone() != null && p.getPhone().contains(phone))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            String digits = digitsOf(phone);
+            if (digits.isEmpty()) {
+                return new ArrayList<>();
+            }
+            return byPhone.search(digits, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -126,12 +239,17 @@ public class PatientManager {
      * @return List of patients admitted today
      */
     public List<Patient> getPatientsAdmittedToday() {
-        LocalDate today = LocalDate.now();
-        return patients.stream()
-                .filter(p -> p.isAdmitted() &&
-                        p.getAdmissionDate() != null &&
-                        p.getAdmissionDate().equals(today))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            LocalDate today = LocalDate.now();
+            return patients.values().stream()
+                    .filter(p -> p.isAdmitted() &&
+                            p.getAdmissionDate() != null &&
+                            p.getAdmissionDate().equals(today))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -140,9 +258,14 @@ public class PatientManager {
      * @return List of currently admitted patients
      */
     public List<Patient> getAdmittedPatients() {
-        return patients.stream()
-                .filter(Patient::isAdmitted)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return patients.values().stream()
+                    .filter(Patient::isAdmitted)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -152,9 +275,14 @@ public class PatientManager {
      * @return List of patients assigned to the doctor
      */
     public List<Patient> getPatientsByDoctor(String doctorId) {
-        return patients.stream()
-                .filter(p -> doctorId.equals(p.getAssignedDoctorId()))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return patients.values().stream()
+                    .filter(p -> doctorId.equals(p.getAssignedDoctorId()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -163,7 +291,12 @@ public class PatientManager {
      * @return Total number of patients
      */
     public int getTotalCount() {
-        return patients.size();
+        lock.readLock().lock();
+        try {
+            return patients.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -172,7 +305,12 @@ public class PatientManager {
      * @return Number of currently admitted patients
      */
     public int getAdmittedCount() {
-        return (int) patients.stream().filter(Patient::isAdmitted).count();
+        lock.readLock().lock();
+        try {
+            return admitted.count(Boolean.TRUE);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -184,13 +322,19 @@ public class PatientManager {
      * @return true if successful
      */
     public boolean admitPatient(String patientId, String roomNumber, String doctorId) {
-        Patient patient = getPatientById(patientId);
-        if (patient != null) {
-            patient.admit(roomNumber, doctorId);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Patient patient = getPatientById(patientId);
+            if (patient != null) {
+                patient.admit(roomNumber, doctorId);
+                admitted.put(patient);
+                FileHandler.appendPatient(Op.UPDATE, patient);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -200,29 +344,82 @@ public class PatientManager {
      * @return true if successful
      */
     public boolean dischargePatient(String patientId) {
-        Patient patient = getPatientById(patientId);
-        if (patient != null) {
-            patient.discharge();
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Patient patient = getPatientById(patientId);
+            if (patient != null) {
+                patient.discharge();
+                admitted.put(patient);
+                FileHandler.appendPatient(Op.UPDATE, patient);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
-     * Save data to file
+     * Reload data from file
      */
-    private void saveData() {
-        FileHandler.savePatients(patients);
+    public void reloadData() {
+        lock.writeLock().lock();
+        try {
+            this.patients = indexById(FileHandler.loadPatients());
+            IDGenerator.advancePast(patients.keySet());
+            snapshot = null;
+            byName.rebuild(patients.values());
+            byPhone.rebuild(patients.values());
+            admitted.rebuild(patients.values());
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Reload data from file
+     * Get the searchable phone text of a patient: the digits of both numbers,
+     * separated so that no match spans the two
+     * 
+     * @param patient Patient
+     * @return Phone digits
      */
-    public void reloadData() {
-        this.patients = FileHandler.loadPatients();
-        if (this.patients == null) {
-            this.patients = new ArrayList<>();
+    private static String phoneDigits(Patient patient) {
+        return digitsOf(patient.getPhone()) + "/" + digitsOf(patient.getEmergencyContactPhone());
+    }
+
+    /**
+     * Strip everything but digits from a phone number
+     * 
+     * @param phone Phone number, may be null
+     * @return Digits only
+     */
+    private static String digitsOf(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Build the ID index of a loaded list
+     * 
+     * @param list Loaded patients, may be null
+     * @return Patients keyed by ID, in list order
+     */
+    private static Map<String, Patient> indexById(List<Patient> list) {
+        Map<String, Patient> index = new LinkedHashMap<>();
+        if (list != null) {
+            for (Patient patient : list) {
+                index.put(patient.getPatientId(), patient);
+            }
         }
+        return index;
     }
 }
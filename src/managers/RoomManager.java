@@ -4,9 +4,16 @@ import models.Room;
 import models.Room.RoomStatus;
 import models.Room.RoomType;
 import utils.FileHandler;
+import utils.index.SecondaryIndex;
+import utils.storage.Journal.Op;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -15,54 +22,74 @@ import java.util.stream.Collectors;
  */
 public class RoomManager {
 
-    private List<Room> rooms;
+    // Keyed by room number; insertion order is kept for listings
+    private Map<String, Room> rooms;
+
+    // Guards the map and indexes; queries share the read lock, mutations take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Read-only list handed out by getAllRooms; dropped whenever rooms are
+    // added, replaced or removed, and rebuilt by the next reader
+    private volatile List<Room> snapshot;
+
+    // Rooms per status, and free rooms per type and per floor, ordered by room number
+    private final SecondaryIndex<Room, String> byStatus = new SecondaryIndex<>(
+            Room::getRoomNumber, r -> r.getStatus() == null ? null : r.getStatus().name(), Room::getRoomNumber);
+    private final SecondaryIndex<Room, String> freeByType = new SecondaryIndex<>(
+            Room::getRoomNumber, r -> r.isAvailable() && r.getType() != null ? r.getType().name() : null,
+            Room::getRoomNumber);
+    private final SecondaryIndex<Room, String> freeByFloor = new SecondaryIndex<>(
+            Room::getRoomNumber, r -> r.isAvailable() ? String.valueOf(r.getFloor()) : null, Room::getRoomNumber);
 
     /**
      * Constructor - loads rooms from file or initializes default rooms
      */
     public RoomManager() {
-        this.rooms = FileHandler.loadRooms();
-        if (this.rooms == null || this.rooms.isEmpty()) {
+        this.rooms = indexById(FileHandler.loadRooms());
+        if (this.rooms.isEmpty()) {
             initializeDefaultRooms();
         }
+        rebuildIndexes();
+        FileHandler.registerRoomSource(this::getAllRooms, lock.readLock());
     }
 
     /**
      * Initialize default rooms for the hospital
      */
     private void initializeDefaultRooms() {
-        rooms = new ArrayList<>();
+        List<Room> defaults = new ArrayList<>();
 
         // Floor 1 - General Ward (10 rooms)
         for (int i = 1; i <= 10; i++) {
-            rooms.add(new Room(String.format("1-R%02d", i), RoomType.GENERAL, 1));
+            defaults.add(new Room(String.format("1-R%02d", i), RoomType.GENERAL, 1));
         }
 
         // Floor 2 - Semi-Private (8 rooms)
         for (int i = 1; i <= 8; i++) {
-            rooms.add(new Room(String.format("2-R%02d", i), RoomType.SEMI_PRIVATE, 2));
+            defaults.add(new Room(String.format("2-R%02d", i), RoomType.SEMI_PRIVATE, 2));
         }
 
         // Floor 3 - Private (6 rooms)
         for (int i = 1; i <= 6; i++) {
-            rooms.add(new Room(String.format("3-R%02d", i), RoomType.PRIVATE, 3));
+            defaults.add(new Room(String.format("3-R%02d", i), RoomType.PRIVATE, 3));
         }
 
         // Floor 4 - Deluxe (4 rooms)
         for (int i = 1; i <= 4; i++) {
-            rooms.add(new Room(String.format("4-R%02d", i), RoomType.DELUXE, 4));
+            defaults.add(new Room(String.format("4-R%02d", i), RoomType.DELUXE, 4));
         }
 
         // Floor 5 - ICU (6 rooms)
         for (int i = 1; i <= 6; i++) {
-            rooms.add(new Room(String.format("5-R%02d", i), RoomType.ICU, 5));
+            defaults.add(new Room(String.format("5-R%02d", i), RoomType.ICU, 5));
         }
 
         // Emergency rooms on Ground Floor
         for (int i = 1; i <= 4; i++) {
-            rooms.add(new Room(String.format("0-E%02d", i), RoomType.EMERGENCY, 0));
+            defaults.add(new Room(String.format("0-E%02d", i), RoomType.EMERGENCY, 0));
         }
 
+        rooms = indexById(defaults);
         saveData();
     }
 
@@ -72,8 +99,15 @@ public class RoomManager {
      * @param room Room to add
      */
     public void addRoom(Room room) {
-        rooms.add(room);
-        saveData();
+        lock.writeLock().lock();
+        try {
+            rooms.put(room.getRoomNumber(), room);
+            snapshot = null;
+            index(room);
+            FileHandler.appendRoom(Op.ADD, room);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -83,14 +117,19 @@ public class RoomManager {
      * @return true if successful
      */
     public boolean updateRoom(Room room) {
-        for (int i = 0; i < rooms.size(); i++) {
-            if (rooms.get(i).getRoomNumber().equals(room.getRoomNumber())) {
-                rooms.set(i, room);
-                saveData();
-                return true;
+        lock.writeLock().lock();
+        try {
+            if (!rooms.containsKey(room.getRoomNumber())) {
+                return false;
             }
+            rooms.put(room.getRoomNumber(), room);
+            snapshot = null;
+            index(room);
+            FileHandler.appendRoom(Op.UPDATE, room);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -100,11 +139,20 @@ public class RoomManager {
      * @return true if successful
      */
     public boolean deleteRoom(String roomNumber) {
-        boolean removed = rooms.removeIf(r -> r.getRoomNumber().equals(roomNumber));
-        if (removed) {
-            saveData();
+        lock.writeLock().lock();
+        try {
+            boolean removed = rooms.remove(roomNumber) != null;
+            snapshot = null;
+            if (removed) {
+                byStatus.remove(roomNumber);
+                freeByType.remove(roomNumber);
+                freeByFloor.remove(roomNumber);
+                FileHandler.appendRoomDeletion(roomNumber);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
     }
 
     /**
@@ -116,13 +164,40 @@ public class RoomManager {
      * @return true if successful
      */
     public boolean allocateRoom(String roomNumber, String patientId, String patientName) {
-        Room room = getRoomByNumber(roomNumber);
-        if (room != null && room.isAvailable()) {
-            room.allocate(patientId, patientName);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Room room = getRoomByNumber(roomNumber);
+            if (room != null && room.isAvailable()) {
+                room.allocate(patientId, patientName);
+                index(room);
+                FileHandler.appendRoom(Op.UPDATE, room);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Allocate any free room of a type to a patient
+     * 
+     * @param type        Room type
+     * @param patientId   Patient ID
+     * @param patientName Patient name
+     * @return Allocated room, or null if none of that type is free
+     */
+    public Room allocateAny(RoomType type, String patientId, String patientName) {
+        lock.writeLock().lock();
+        try {
+            Room room = freeByType.first(type.name());
+            if (room == null || !allocateRoom(room.getRoomNumber(), patientId, patientName)) {
+                return null;
+            }
+            return room;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -132,13 +207,19 @@ public class RoomManager {
      * @return true if successful
      */
     public boolean releaseRoom(String roomNumber) {
-        Room room = getRoomByNumber(roomNumber);
-        if (room != null && room.getStatus() == RoomStatus.OCCUPIED) {
-            room.release();
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Room room = getRoomByNumber(roomNumber);
+            if (room != null && room.getStatus() == RoomStatus.OCCUPIED) {
+                room.release();
+                index(room);
+                FileHandler.appendRoom(Op.UPDATE, room);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -148,13 +229,19 @@ public class RoomManager {
      * @return true if successful
      */
     public boolean markRoomAvailable(String roomNumber) {
-        Room room = getRoomByNumber(roomNumber);
-        if (room != null) {
-            room.setStatus(RoomStatus.AVAILABLE);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Room room = getRoomByNumber(roomNumber);
+            if (room != null) {
+                room.setStatus(RoomStatus.AVAILABLE);
+                index(room);
+                FileHandler.appendRoom(Op.UPDATE, room);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -164,13 +251,19 @@ public class RoomManager {
      * @return true if successful
      */
     public boolean setMaintenance(String roomNumber) {
-        Room room = getRoomByNumber(roomNumber);
-        if (room != null) {
-            room.setStatus(RoomStatus.MAINTENANCE);
-            saveData();
-            return true;
+        lock.writeLock().lock();
+        try {
+            Room room = getRoomByNumber(roomNumber);
+            if (room != null) {
+                room.setStatus(RoomStatus.MAINTENANCE);
+                index(room);
+                FileHandler.appendRoom(Op.UPDATE, room);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -180,19 +273,35 @@ public class RoomManager {
      * @return Room or null if not found
      */
     public Room getRoomByNumber(String roomNumber) {
-        return rooms.stream()
-                .filter(r -> r.getRoomNumber().equals(roomNumber))
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return rooms.get(roomNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Get all rooms
      * 
-     * @return List of all rooms
+     * @return Read-only list of all rooms, shared between callers until the
+     *         next addition or removal
      */
     public List<Room> getAllRooms() {
-        return new ArrayList<>(rooms);
+        List<Room> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            // Writers are excluded while the read lock is held, so the copy is consistent
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(rooms.values()));
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -201,9 +310,12 @@ public class RoomManager {
      * @return List of available rooms
      */
     public List<Room> getAvailableRooms() {
-        return rooms.stream()
-                .filter(Room::isAvailable)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byStatus.get(RoomStatus.AVAILABLE.name());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -213,9 +325,42 @@ public class RoomManager {
      * @return Available rooms of that type
      */
     public List<Room> getAvailableRoomsByType(RoomType type) {
-        return rooms.stream()
-                .filter(r -> r.getType() == type && r.isAvailable())
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return freeByType.get(type.name());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get available rooms on a floor
+     * 
+     * @param floor Floor number
+     * @return Available rooms on that floor
+     */
+    public List<Room> getAvailableRoomsByFloor(int floor) {
+        lock.readLock().lock();
+        try {
+            return freeByFloor.get(String.valueOf(floor));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get available room count by type
+     * 
+     * @param type Room type
+     * @return Number of available rooms of that type
+     */
+    public int getAvailableCountByType(RoomType type) {
+        lock.readLock().lock();
+        try {
+            return freeByType.count(type.name());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -225,9 +370,12 @@ public class RoomManager {
      * @return Matching rooms
      */
     public List<Room> getRoomsByStatus(RoomStatus status) {
-        return rooms.stream()
-                .filter(r -> r.getStatus() == status)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return byStatus.get(status.name());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -237,9 +385,14 @@ public class RoomManager {
      * @return Matching rooms
      */
     public List<Room> getRoomsByType(RoomType type) {
-        return rooms.stream()
-                .filter(r -> r.getType() == type)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return rooms.values().stream()
+                    .filter(r -> r.getType() == type)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -249,9 +402,14 @@ public class RoomManager {
      * @return Rooms on that floor
      */
     public List<Room> getRoomsByFloor(int floor) {
-        return rooms.stream()
-                .filter(r -> r.getFloor() == floor)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return rooms.values().stream()
+                    .filter(r -> r.getFloor() == floor)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -261,10 +419,15 @@ public class RoomManager {
      * @return Room or null
      */
     public Room getRoomByPatient(String patientId) {
-        return rooms.stream()
-                .filter(r -> patientId.equals(r.getCurrentPatientId()))
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return rooms.values().stream()
+                    .filter(r -> patientId.equals(r.getCurrentPatientId()))
+                    .findFirst()
+                    .orElse(null);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -273,7 +436,12 @@ public class RoomManager {
      * @return Total number of rooms
      */
     public int getTotalCount() {
-        return rooms.size();
+        lock.readLock().lock();
+        try {
+            return rooms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -282,7 +450,12 @@ public class RoomManager {
      * @return Number of available rooms
      */
     public int getAvailableCount() {
-        return (int) rooms.stream().filter(Room::isAvailable).count();
+        lock.readLock().lock();
+        try {
+            return byStatus.count(RoomStatus.AVAILABLE.name());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -291,9 +464,12 @@ public class RoomManager {
      * @return Number of occupied rooms
      */
     public int getOccupiedCount() {
-        return (int) rooms.stream()
-                .filter(r -> r.getStatus() == RoomStatus.OCCUPIED)
-                .count();
+        lock.readLock().lock();
+        try {
+            return byStatus.count(RoomStatus.OCCUPIED.name());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -302,25 +478,73 @@ public class RoomManager {
      * @return Occupancy rate as percentage
      */
     public double getOccupancyRate() {
-        if (rooms.isEmpty())
-            return 0;
-        return (getOccupiedCount() * 100.0) / rooms.size();
+        lock.readLock().lock();
+        try {
+            if (rooms.isEmpty())
+                return 0;
+            return (getOccupiedCount() * 100.0) / rooms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Save data to file
      */
     private void saveData() {
-        FileHandler.saveRooms(rooms);
+        FileHandler.saveRooms(new ArrayList<>(rooms.values()));
     }
 
     /**
      * Reload data from file
      */
     public void reloadData() {
-        this.rooms = FileHandler.loadRooms();
-        if (this.rooms == null || this.rooms.isEmpty()) {
-            initializeDefaultRooms();
+        lock.writeLock().lock();
+        try {
+            this.rooms = indexById(FileHandler.loadRooms());
+            snapshot = null;
+            if (this.rooms.isEmpty()) {
+                initializeDefaultRooms();
+            }
+            rebuildIndexes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index a new or changed room
+     * 
+     * @param room Room in its current state
+     */
+    private void index(Room room) {
+        byStatus.put(room);
+        freeByType.put(room);
+        freeByFloor.put(room);
+    }
+
+    /**
+     * Rebuild the status and free-room indexes from the loaded rooms
+     */
+    private void rebuildIndexes() {
+        byStatus.rebuild(rooms.values());
+        freeByType.rebuild(rooms.values());
+        freeByFloor.rebuild(rooms.values());
+    }
+
+    /**
+     * Build the room-number index of a loaded list
+     * 
+     * @param list Loaded rooms, may be null
+     * @return Rooms keyed by room number, in list order
+     */
+    private static Map<String, Room> indexById(List<Room> list) {
+        Map<String, Room> index = new LinkedHashMap<>();
+        if (list != null) {
+            for (Room room : list) {
+                index.put(room.getRoomNumber(), room);
+            }
         }
+        return index;
     }
 }
@@ -68,6 +68,25 @@ public class Appointment implements Serializable {
         this.createdAt = LocalDateTime.now();
     }
 
+    /**
+     * Copy constructor, for changing an appointment without touching the
+     * instance held by AppointmentManager
+     *
+     * @param other Appointment to copy
+     */
+    public Appointment(Appointment other) {
+        this.appointmentId = other.appointmentId;
+        this.patientId = other.patientId;
+        this.patientName = other.patientName;
+        this.doctorId = other.doctorId;
+        this.doctorName = other.doctorName;
+        this.dateTime = other.dateTime;
+        this.status = other.status;
+        this.notes = other.notes;
+        this.purpose = other.purpose;
+        this.createdAt = other.createdAt;
+    }
+
     /**
      * Mark appointment as completed
      */
@@ -0,0 +1,621 @@
+package utils;
+
+import models.*;
+import models.Appointment.AppointmentStatus;
+import models.Bill.BillItem;
+import models.Bill.BillStatus;
+import models.Room.RoomStatus;
+import models.Room.RoomType;
+import utils.FileHandler.BulkWriter;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Deterministic generator of a realistic hospital dataset, for running the
+ * application and the benchmarks at scale.
+ *
+ * The same seed, sizes and reference date always produce the same files.
+ * Doctors and rooms are kept in memory; patients, appointments, bills and
+ * medical records are streamed straight into the data files through
+ * {@link FileHandler.BulkWriter}, so the heap needed does not grow with the
+ * number of appointments. Attributes of patient i (name, registration date)
+ * are computed from i instead of being remembered.
+ *
+ * History runs from the given number of years before the reference date to
+ * a month after it: past appointments are completed, cancelled or missed,
+ * future ones mostly scheduled, and no doctor is booked twice for a slot.
+ * Completed visits produce bills (older ones mostly paid) and medical
+ * records; some lead to a past hospital stay, billed as room charges. Rooms
+ * are occupied by currently admitted patients.
+ *
+ * Replaces the patients, doctors, appointments, bills, rooms and medical
+ * records files, so no manager may be running while it generates.
+ */
+public class DatasetGenerator {
+
+    // Half-hour appointment slots from 8:00 to 17:00
+    private static final int SLOTS_PER_DAY = 18;
+    private static final int ROOMS_PER_FLOOR = 20;
+
+    // Reference time separating past from upcoming appointments on the reference date
+    private static final int CUTOFF_HOUR = 12;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Vivaan", "Aditya", "Arjun", "Sai", "Reyansh", "Krishna", "Ishaan", "Rohan", "Kabir",
+        "Ananya", "Diya", "Saanvi", "Aadhya", "Kavya", "Priya", "Meera", "Lakshmi", "Isha", "Riya",
+        "Rahul", "Vikram", "Suresh", "Ramesh", "Deepa", "Nisha", "Pooja", "Divya", "Anil", "Sunita",
+        "John", "Maria", "David", "Sarah", "Michael", "Emma", "James", "Olivia", "Fatima", "Ahmed"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Verma", "Iyer", "Nair", "Reddy", "Rao", "Patel", "Shah", "Gupta", "Singh",
+        "Kumar", "Menon", "Pillai", "Bose", "Das", "Joshi", "Kulkarni", "Desai", "Mehta", "Chopra",
+        "Kapoor", "Malhotra", "Banerjee", "Mukherjee", "Chatterjee", "Agarwal", "Bhat", "Hegde", "Naidu", "Khan",
+        "Smith", "Johnson", "Brown", "Williams", "Jones", "Garcia", "Miller", "Wilson", "Fernandes", "D'Souza"
+    };
+
+    private static final String[] SPECIALIZATIONS = {
+        "Cardiology", "Neurology", "Orthopedics", "Pediatrics",
+        "Dermatology", "Ophthalmology", "ENT", "General Medicine"
+    };
+
+    private static final String[][] DIAGNOSES = {
+        { "Hypertension", "Angina", "Arrhythmia", "Heart failure" },
+        { "Migraine", "Epilepsy", "Peripheral neuropathy", "Vertigo" },
+        { "Fracture", "Osteoarthritis", "Ligament sprain", "Lower back pain" },
+        { "Viral fever", "Otitis media", "Bronchiolitis", "Gastroenteritis" },
+        { "Eczema", "Psoriasis", "Acne", "Fungal infection" },
+        { "Cataract", "Conjunctivitis", "Glaucoma", "Refractive error" },
+        { "Sinusitis", "Tonsillitis", "Hearing loss", "Otitis externa" },
+        { "Type 2 diabetes", "Upper respiratory infection", "Anaemia", "Dengue fever" }
+    };
+
+    private static final String[] MEDICINES = {
+        "Paracetamol 500mg", "Amoxicillin 500mg", "Metformin 500mg", "Amlodipine 5mg",
+        "Cetirizine 10mg", "Omeprazole 20mg", "Ibuprofen 400mg", "Atorvastatin 10mg"
+    };
+
+    private static final String[] TESTS = {
+        "Complete blood count", "Lipid profile", "Blood sugar", "X-ray", "ECG", "MRI", "Urine analysis"
+    };
+
+    private static final String[] PURPOSES = {
+        "Consultation", "Follow-up", "Routine checkup", "Test results review", "Second opinion"
+    };
+
+    private static final String[] BLOOD_GROUPS = { "O+", "B+", "A+", "AB+", "O-", "B-", "A-", "AB-" };
+    private static final int[] BLOOD_GROUP_WEIGHTS = { 37, 32, 22, 7, 1, 1, 1, 1 };
+
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+    // GENERAL, SEMI_PRIVATE, PRIVATE, DELUXE, ICU, OPERATION_THEATER, EMERGENCY
+    private static final int[] ROOM_TYPE_WEIGHTS = { 40, 20, 15, 5, 10, 3, 7 };
+
+    private static final String[] PAYMENT_METHODS = { "Cash", "Card", "UPI", "Insurance" };
+
+    private long seed = 42;
+    private int patientCount = 10_000;
+    private int doctorCount = 50;
+    private int roomCount = 200;
+    private long appointmentCount = 100_000;
+    private int years = 3;
+    private LocalDate referenceDate = LocalDate.now();
+
+    // Results of the last run
+    private long generatedAppointmentCount;
+    private long billCount;
+    private long medicalRecordCount;
+    private int admittedCount;
+
+    // State of a run
+    private Random random;
+    private LocalDate firstDay;
+    private long registrationDays;
+    private List<Doctor> doctors;
+    private List<Room> rooms;
+    private long billSequence;
+    private long recordSequence;
+
+    // ==================== SETTINGS ====================
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getPatientCount() {
+        return patientCount;
+    }
+
+    public void setPatientCount(int patientCount) {
+        this.patientCount = patientCount;
+    }
+
+    public int getDoctorCount() {
+        return doctorCount;
+    }
+
+    public void setDoctorCount(int doctorCount) {
+        this.doctorCount = doctorCount;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public void setRoomCount(int roomCount) {
+        this.roomCount = roomCount;
+    }
+
+    public long getAppointmentCount() {
+        return appointmentCount;
+    }
+
+    public void setAppointmentCount(long appointmentCount) {
+        this.appointmentCount = appointmentCount;
+    }
+
+    public int getYears() {
+        return years;
+    }
+
+    public void setYears(int years) {
+        this.years = years;
+    }
+
+    public LocalDate getReferenceDate() {
+        return referenceDate;
+    }
+
+    /**
+     * Set the day treated as today; fix it to reproduce a dataset exactly
+     *
+     * @param referenceDate Reference date
+     */
+    public void setReferenceDate(LocalDate referenceDate) {
+        this.referenceDate = referenceDate;
+    }
+
+    /**
+     * Get the number of appointments written by the last run, which is lower
+     * than requested if the doctors' days are fully booked
+     *
+     * @return Appointment count
+     */
+    public long getGeneratedAppointmentCount() {
+        return generatedAppointmentCount;
+    }
+
+    public long getBillCount() {
+        return billCount;
+    }
+
+    public long getMedicalRecordCount() {
+        return medicalRecordCount;
+    }
+
+    public int getAdmittedCount() {
+        return admittedCount;
+    }
+
+    // ==================== GENERATION ====================
+
+    /**
+     * Generate the dataset and replace the data files with it
+     */
+    public void generate() throws IOException {
+        if (patientCount <= 0 || doctorCount <= 0 || roomCount <= 0 || appointmentCount < 0 || years <= 0) {
+            throw new IllegalArgumentException("Dataset sizes must be positive");
+        }
+        random = new Random(seed);
+        firstDay = referenceDate.minusYears(years);
+        registrationDays = ChronoUnit.DAYS.between(firstDay, referenceDate) + 1;
+        billSequence = 0;
+        recordSequence = 0;
+
+        doctors = createDoctors();
+        rooms = createRooms();
+        Map<Integer, Room> admissions = occupyRooms();
+        admittedCount = admissions.size();
+
+        try (BulkWriter<Doctor> writer = FileHandler.importDoctors()) {
+            for (Doctor doctor : doctors) {
+                writer.write(doctor);
+            }
+            writer.commit();
+        }
+        try (BulkWriter<Room> writer = FileHandler.importRooms()) {
+            for (Room room : rooms) {
+                writer.write(room);
+            }
+            writer.commit();
+        }
+        writePatients(admissions);
+
+        try (BulkWriter<Appointment> appointments = FileHandler.importAppointments();
+                BulkWriter<Bill> bills = FileHandler.importBills();
+                BulkWriter<MedicalRecord> records = FileHandler.importMedicalRecords()) {
+            writeHistory(appointments, bills, records);
+            appointments.commit();
+            bills.commit();
+            records.commit();
+            generatedAppointmentCount = appointments.getCount();
+            billCount = bills.getCount();
+            medicalRecordCount = records.getCount();
+        }
+    }
+
+    private List<Doctor> createDoctors() {
+        List<Doctor> list = new ArrayList<>(doctorCount);
+        for (int i = 0; i < doctorCount; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String specialization = SPECIALIZATIONS[i % SPECIALIZATIONS.length];
+            String doctorId = formatId("DOC", null, 101 + i, 3);
+            Doctor doctor = new Doctor(doctorId, name,
+                    referenceDate.minusYears(30 + random.nextInt(30)).minusDays(random.nextInt(365)),
+                    random.nextBoolean() ? "Male" : "Female", phone(),
+                    name.toLowerCase().replace(" ", ".").replace("'", "") + (i + 1) + "@medcare.hospital",
+                    "Doctors Quarters " + (i + 1), doctorId, specialization, specialization,
+                    random.nextInt(4) == 0 ? "MBBS, MS" : "MBBS, MD", 300 + 50 * random.nextInt(20));
+            doctor.setExperienceYears(2 + random.nextInt(30));
+            doctor.setWorkingHours("8:00 AM - 5:00 PM");
+            doctor.setAvailableDays(Arrays.asList("Monday", "Tuesday", "Wednesday", "Thursday", "Friday"));
+            list.add(doctor);
+        }
+        return list;
+    }
+
+    private List<Room> createRooms() {
+        List<Room> list = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            int floor = 1 + i / ROOMS_PER_FLOOR;
+            RoomType type = ROOM_TYPES[weighted(ROOM_TYPE_WEIGHTS)];
+            Room room = new Room(IDGenerator.generateRoomNumber(floor, 1 + i % ROOMS_PER_FLOOR), type, floor);
+            if (type == RoomType.GENERAL) {
+                room.setBedCount(4);
+            } else if (type == RoomType.SEMI_PRIVATE) {
+                room.setBedCount(2);
+            }
+            list.add(room);
+        }
+        return list;
+    }
+
+    /**
+     * Admit patients to most ward rooms; a few rooms of every type, operation
+     * theaters included, are being cleaned or repaired
+     *
+     * @return Occupied room by patient index
+     */
+    private Map<Integer, Room> occupyRooms() {
+        Map<Integer, Room> admissions = new HashMap<>();
+        for (Room room : rooms) {
+            int roll = random.nextInt(100);
+            if (roll < 70) {
+                // Operation theaters are not allocated to patients; they stay available
+                if (room.getType() != RoomType.OPERATION_THEATER) {
+                    int patient = random.nextInt(patientCount);
+                    if (!admissions.containsKey(patient)) {
+                        room.allocate(patientId(patient), patientName(patient));
+                        admissions.put(patient, room);
+                    }
+                }
+            } else if (roll < 75) {
+                room.setStatus(RoomStatus.CLEANING);
+            } else if (roll < 78) {
+                room.setStatus(RoomStatus.MAINTENANCE);
+            }
+        }
+        return admissions;
+    }
+
+    private void writePatients(Map<Integer, Room> admissions) throws IOException {
+        try (BulkWriter<Patient> writer = FileHandler.importPatients()) {
+            for (int i = 0; i < patientCount; i++) {
+                String name = patientName(i);
+                String id = patientId(i);
+                Patient patient = new Patient(id, name,
+                        referenceDate.minusDays(random.nextInt(90 * 365)),
+                        random.nextBoolean() ? "Male" : "Female", phone(),
+                        name.toLowerCase().replace(" ", ".").replace("'", "") + (i + 1) + "@email.com",
+                        (1 + random.nextInt(500)) + ", Street " + (1 + random.nextInt(200)) + ", City",
+                        id, BLOOD_GROUPS[weighted(BLOOD_GROUP_WEIGHTS)]);
+                patient.setEmergencyContact(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + name.substring(name.indexOf(' ') + 1));
+                patient.setEmergencyContactPhone(phone());
+                if (random.nextInt(5) == 0) {
+                    patient.addMedicalHistory(DIAGNOSES[7][random.nextInt(DIAGNOSES[7].length)]);
+                }
+                Room room = admissions.get(i);
+                if (room != null) {
+                    patient.admit(room.getRoomNumber(), doctors.get(random.nextInt(doctors.size())).getDoctorId());
+                    patient.setAdmissionDate(referenceDate.minusDays(random.nextInt(14)));
+                }
+                writer.write(patient);
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * Write appointments day by day, with the bills and medical records of
+     * the completed ones
+     */
+    private void writeHistory(BulkWriter<Appointment> appointments, BulkWriter<Bill> bills,
+            BulkWriter<MedicalRecord> records) throws IOException {
+        LocalDate lastDay = referenceDate.plusMonths(1);
+        LocalDateTime cutoff = referenceDate.atTime(CUTOFF_HOUR, 0);
+
+        // Spread the appointments over the days by weekday weight
+        double totalWeight = 0;
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            totalWeight += dayWeight(day);
+        }
+
+        int slots = doctors.size() * SLOTS_PER_DAY;
+        BitSet booked = new BitSet(slots);
+        long sequence = 0;
+        double owed = 0;
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            owed += appointmentCount * dayWeight(day) / totalWeight;
+            long count = Math.min((long) owed, slots);
+            owed -= count;
+            if (count == 0) {
+                continue;
+            }
+
+            String date = day.format(DATE_FORMAT);
+            int registered = registeredBy(day);
+            booked.clear();
+            for (long n = 0; n < count; n++) {
+                // Linear probing keeps doctors from being booked twice
+                int slot = booked.nextClearBit(random.nextInt(slots));
+                if (slot >= slots) {
+                    slot = booked.nextClearBit(0);
+                }
+                booked.set(slot);
+
+                Doctor doctor = doctors.get(slot / SLOTS_PER_DAY);
+                LocalDateTime time = day.atTime(8, 0).plusMinutes(30L * (slot % SLOTS_PER_DAY));
+                int patient = random.nextInt(registered);
+                Appointment appointment = new Appointment(formatId("APT", date, ++sequence, 5),
+                        patientId(patient), patientName(patient), doctor.getDoctorId(), doctor.getName(),
+                        time, PURPOSES[random.nextInt(PURPOSES.length)]);
+                appointment.setCreatedAt(time.minusDays(1 + random.nextInt(30)).minusHours(random.nextInt(8)));
+                appointment.setStatus(status(time.isBefore(cutoff)));
+                appointments.write(appointment);
+
+                if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
+                    writeVisit(appointment, doctor, cutoff, bills, records);
+                }
+            }
+        }
+    }
+
+    private void writeVisit(Appointment appointment, Doctor doctor, LocalDateTime cutoff,
+            BulkWriter<Bill> bills, BulkWriter<MedicalRecord> records) throws IOException {
+        LocalDateTime time = appointment.getDateTime();
+        String date = time.toLocalDate().format(DATE_FORMAT);
+        int specialty = Arrays.asList(SPECIALIZATIONS).indexOf(doctor.getSpecialization());
+        String diagnosis = DIAGNOSES[specialty][random.nextInt(DIAGNOSES[specialty].length)];
+
+        if (random.nextInt(10) < 7) {
+            MedicalRecord record = new MedicalRecord(formatId("MR", date, ++recordSequence, 5),
+                    appointment.getPatientId(), appointment.getPatientName(),
+                    doctor.getDoctorId(), doctor.getName(), diagnosis);
+            record.setDate(time.plusMinutes(20));
+            record.setSymptoms("Presented with symptoms of " + diagnosis.toLowerCase());
+            int prescriptions = random.nextInt(3);
+            for (int i = 0; i < prescriptions; i++) {
+                record.addPrescription(MEDICINES[random.nextInt(MEDICINES.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                record.addTestResult(TESTS[random.nextInt(TESTS.length)] + ": normal");
+            }
+            if (random.nextInt(4) == 0) {
+                record.setFollowUpInstructions("Review in " + (1 + random.nextInt(4)) + " weeks");
+            }
+            records.write(record);
+        }
+
+        if (random.nextInt(20) == 0) {
+            // Not every visit is billed separately
+            return;
+        }
+        Bill bill = new Bill(formatId("BILL", date, ++billSequence, 5),
+                appointment.getPatientId(), appointment.getPatientName());
+        bill.setDateGenerated(time.plusMinutes(30));
+        bill.addItem(new BillItem("Consultation - Dr. " + doctor.getName(), "Consultation", 1,
+                doctor.getConsultationFee()));
+        if (random.nextInt(5) < 2) {
+            bill.addItem(new BillItem(MEDICINES[random.nextInt(MEDICINES.length)], "Medicine",
+                    1 + random.nextInt(3), 50 + 10 * random.nextInt(40)));
+        }
+        if (random.nextInt(4) == 0) {
+            bill.addItem(new BillItem(TESTS[random.nextInt(TESTS.length)], "Lab Test", 1,
+                    200 + 100 * random.nextInt(30)));
+        }
+        if (random.nextInt(20) == 0) {
+            bill.addItem(new BillItem("Minor procedure", "Procedure", 1, 2000 + 500 * random.nextInt(20)));
+        }
+
+        // A past hospital stay that started with this visit
+        int stayDays = 1 + random.nextInt(10);
+        if (random.nextInt(60) == 0 && time.plusDays(stayDays).isBefore(cutoff)) {
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            bill.addItem(new BillItem("Room " + room.getRoomNumber() + " (" + room.getType().getDisplayName() + ")",
+                    "Room Charge", stayDays, room.getPricePerDay()));
+            bill.setDateGenerated(time.plusDays(stayDays));
+        }
+
+        settle(bill, cutoff);
+        bills.write(bill);
+    }
+
+    /**
+     * Pay older bills in full, recent ones only partly
+     */
+    private void settle(Bill bill, LocalDateTime cutoff) {
+        long age = ChronoUnit.DAYS.between(bill.getDateGenerated(), cutoff);
+        int roll = random.nextInt(100);
+        int paid = age > 60 ? 93 : age > 7 ? 70 : 45;
+        String method = PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)];
+        if (roll < paid) {
+            bill.processPayment(bill.getTotalAmount(), method);
+            long delay = Math.min(age, random.nextInt(10));
+            bill.setDatePaid(bill.getDateGenerated().plusDays(delay).plusHours(random.nextInt(4)));
+        } else if (roll < paid + 10) {
+            bill.processPayment(Math.floor(bill.getTotalAmount() / 2), method);
+        } else if (age > 60 && roll < paid + 12) {
+            bill.setStatus(BillStatus.CANCELLED);
+        }
+    }
+
+    private AppointmentStatus status(boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 78 ? AppointmentStatus.COMPLETED
+                    : roll < 90 ? AppointmentStatus.CANCELLED : AppointmentStatus.NO_SHOW;
+        }
+        return roll < 92 ? AppointmentStatus.SCHEDULED : AppointmentStatus.CANCELLED;
+    }
+
+    private static double dayWeight(LocalDate day) {
+        DayOfWeek weekday = day.getDayOfWeek();
+        return weekday == DayOfWeek.SUNDAY ? 0.3 : weekday == DayOfWeek.SATURDAY ? 0.6 : 1.0;
+    }
+
+    // ==================== PATIENTS BY INDEX ====================
+
+    /**
+     * Get the number of patients registered by the end of a day; patients
+     * register at an even rate over the history period
+     */
+    private int registeredBy(LocalDate day) {
+        long days = Math.min(ChronoUnit.DAYS.between(firstDay, day) + 1, registrationDays);
+        return (int) Math.max(1, days * patientCount / registrationDays);
+    }
+
+    private LocalDate registrationDate(int patient) {
+        return firstDay.plusDays((long) patient * registrationDays / patientCount);
+    }
+
+    private String patientId(int patient) {
+        return formatId("PAT", registrationDate(patient).format(DATE_FORMAT), 1001 + patient, 4);
+    }
+
+    private String patientName(int patient) {
+        long hash = mix(seed * 0x9E3779B97F4A7C15L + patient);
+        return FIRST_NAMES[(int) ((hash >>> 1) % FIRST_NAMES.length)] + " "
+                + LAST_NAMES[(int) ((hash >>> 33) % LAST_NAMES.length)];
+    }
+
+    // ==================== HELPERS ====================
+
+    private String phone() {
+        return (char) ('6' + random.nextInt(4)) + String.valueOf(100_000_000 + random.nextInt(900_000_000));
+    }
+
+    private int weighted(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Finalizer of the SplitMix64 generator, to derive values from an index
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Build an ID in the format of IDGenerator, e.g. APT-20240101-00001
+     */
+    private static String formatId(String type, String date, long num, int width) {
+        String digits = Long.toString(num);
+        StringBuilder id = new StringBuilder(type.length() + 10 + Math.max(width, digits.length()));
+        id.append(type).append('-');
+        if (date != null) {
+            id.append(date).append('-');
+        }
+        for (int i = digits.length(); i < width; i++) {
+            id.append('0');
+        }
+        return id.append(digits).toString();
+    }
+
+    // ==================== COMMAND LINE ====================
+
+    /**
+     * Generate a dataset into ./data
+     *
+     * Options: seed=, patients=, doctors=, rooms=, appointments=, years=,
+     * date=yyyy-MM-dd (reference date, default today)
+     *
+     * @param args key=value options
+     */
+    public static void main(String[] args) throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            String value = option.length > 1 ? option[1].replace("_", "") : "";
+            switch (option[0]) {
+                case "seed":
+                    generator.setSeed(Long.parseLong(value));
+                    break;
+                case "patients":
+                    generator.setPatientCount(Integer.parseInt(value));
+                    break;
+                case "doctors":
+                    generator.setDoctorCount(Integer.parseInt(value));
+                    break;
+                case "rooms":
+                    generator.setRoomCount(Integer.parseInt(value));
+                    break;
+                case "appointments":
+                    generator.setAppointmentCount(Long.parseLong(value));
+                    break;
+                case "years":
+                    generator.setYears(Integer.parseInt(value));
+                    break;
+                case "date":
+                    generator.setReferenceDate(LocalDate.parse(value));
+                    break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    System.exit(1);
+            }
+        }
+
+        long begin = System.nanoTime();
+        generator.generate();
+        System.out.printf("%,d patients (%,d admitted), %,d doctors, %,d rooms, %,d appointments, "
+                + "%,d bills, %,d medical records in %.1f s%n",
+                generator.getPatientCount(), generator.getAdmittedCount(), generator.getDoctorCount(),
+                generator.getRoomCount(), generator.getGeneratedAppointmentCount(), generator.getBillCount(),
+                generator.getMedicalRecordCount(), (System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -1,14 +1,41 @@
 package utils;
 
 import models.*;
+import utils.storage.Codecs;
+import utils.storage.CompactionPolicy;
+import utils.storage.EntityCodec;
+import utils.storage.Journal;
+import utils.storage.Journal.Op;
+import utils.storage.JournalCompactor;
+import utils.storage.MappedRecordStore;
+import utils.storage.RecordFile;
+import utils.storage.SlotLayouts;
+import utils.storage.WriteBehindQueue;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 /**
  * Utility class for handling file I/O operations.
- * Uses Java Serialization for data persistence.
+ * Entities are persisted with hand-written binary codecs (see {@link Codecs}).
+ * Data files written with Java serialization by earlier versions are read
+ * once and rewritten in the codec format.
+ *
+ * Patients, doctors, appointments, bills and rooms are stored as a snapshot
+ * file plus an append-only journal of the mutations made since that snapshot.
+ * A background compactor periodically folds each journal into a new snapshot.
+ * Appointment status and bill payment fields are additionally kept in
+ * memory-mapped slot files so that status changes are written in place.
+ *
+ * Journal and slot writes are handed to a write-behind queue, which writes
+ * and syncs them in batches on a background thread; the append methods
+ * return a future for callers that need to wait for durability.
  */
 public class FileHandler {
 
@@ -23,6 +50,42 @@ public class FileHandler {
     private static final String MEDICAL_RECORDS_FILE = DATA_DIR + "/medical_records.dat";
     private static final String USERS_FILE = DATA_DIR + "/users.dat";
 
+    // ID sequence limits, used by IDGenerator
+    static final String SEQUENCES_FILE = DATA_DIR + "/sequences.dat";
+
+    // Batches journal and slot writes into one sync per window
+    private static final WriteBehindQueue WRITE_QUEUE = new WriteBehindQueue(5, 500);
+
+    // Mutation journals, replayed on top of the snapshot files at load time
+    private static final Journal<Patient> PATIENT_JOURNAL = new Journal<>(
+            DATA_DIR + "/patients.journal", Patient::getPatientId, Codecs.PATIENT, WRITE_QUEUE);
+    private static final Journal<Doctor> DOCTOR_JOURNAL = new Journal<>(
+            DATA_DIR + "/doctors.journal", Doctor::getDoctorId, Codecs.DOCTOR, WRITE_QUEUE);
+    private static final Journal<Appointment> APPOINTMENT_JOURNAL = new Journal<>(
+            DATA_DIR + "/appointments.journal", Appointment::getAppointmentId, Codecs.APPOINTMENT, WRITE_QUEUE);
+    private static final Journal<Bill> BILL_JOURNAL = new Journal<>(
+            DATA_DIR + "/bills.journal", Bill::getBillId, Codecs.BILL, WRITE_QUEUE);
+    private static final Journal<Room> ROOM_JOURNAL = new Journal<>(
+            DATA_DIR + "/rooms.journal", Room::getRoomNumber, Codecs.ROOM, WRITE_QUEUE);
+
+    // In-place status fields, applied on top of the replayed journals
+    private static final MappedRecordStore<Appointment> APPOINTMENT_SLOTS = new MappedRecordStore<>(
+            DATA_DIR + "/appointments.slots", Appointment::getAppointmentId, SlotLayouts.APPOINTMENT);
+    private static final MappedRecordStore<Bill> BILL_SLOTS = new MappedRecordStore<>(
+            DATA_DIR + "/bills.slots", Bill::getBillId, SlotLayouts.BILL);
+    private static final WriteBehindQueue.Target APPOINTMENT_SLOTS_SYNC = APPOINTMENT_SLOTS::force;
+    private static final WriteBehindQueue.Target BILL_SLOTS_SYNC = BILL_SLOTS::force;
+
+    private static final JournalCompactor COMPACTOR = new JournalCompactor();
+
+    static {
+        COMPACTOR.register(PATIENT_JOURNAL, PATIENTS_FILE, Codecs.PATIENT);
+        COMPACTOR.register(DOCTOR_JOURNAL, DOCTORS_FILE, Codecs.DOCTOR);
+        COMPACTOR.register(APPOINTMENT_JOURNAL, APPOINTMENTS_FILE, Codecs.APPOINTMENT);
+        COMPACTOR.register(BILL_JOURNAL, BILLS_FILE, Codecs.BILL);
+        COMPACTOR.register(ROOM_JOURNAL, ROOMS_FILE, Codecs.ROOM);
+    }
+
     /**
      * Initialize data directory
      */
@@ -41,7 +104,8 @@ public class FileHandler {
      * @param patients List of patients
      */
     public static void savePatients(List<Patient> patients) {
-        saveToFile(PATIENTS_FILE, patients);
+        initializeDataDirectory();
+        COMPACTOR.snapshotNow(PATIENT_JOURNAL, patients);
     }
 
     /**
@@ -49,10 +113,41 @@ public class FileHandler {
      * 
      * @return List of patients
      */
-    @SuppressWarnings("unchecked")
     public static List<Patient> loadPatients() {
-        Object data = loadFromFile(PATIENTS_FILE);
-        return data != null ? (List<Patient>) data : new ArrayList<>();
+        List<Patient> patients = COMPACTOR.load(PATIENT_JOURNAL, () -> loadList(PATIENTS_FILE, Codecs.PATIENT));
+        COMPACTOR.compactIfDue(PATIENT_JOURNAL);
+        return patients;
+    }
+
+    /**
+     * Journal an added or updated patient
+     * 
+     * @param op      ADD or UPDATE
+     * @param patient Patient in its new state
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendPatient(Op op, Patient patient) {
+        return PATIENT_JOURNAL.append(op, patient);
+    }
+
+    /**
+     * Journal a deleted patient
+     * 
+     * @param patientId ID of the deleted patient
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendPatientDeletion(String patientId) {
+        return PATIENT_JOURNAL.appendDelete(patientId);
+    }
+
+    /**
+     * Register the live patient list used for journal compaction
+     * 
+     * @param source Supplier of the current patients list
+     * @param lock   Lock held while compaction reads the list; excludes changes
+     */
+    public static void registerPatientSource(Supplier<List<Patient>> source, Lock lock) {
+        COMPACTOR.setSource(PATIENT_JOURNAL, source, lock);
     }
 
     // ==================== DOCTORS ====================
@@ -63,7 +158,8 @@ public class FileHandler {
      * @param doctors List of doctors
      */
     public static void saveDoctors(List<Doctor> doctors) {
-        saveToFile(DOCTORS_FILE, doctors);
+        initializeDataDirectory();
+        COMPACTOR.snapshotNow(DOCTOR_JOURNAL, doctors);
     }
 
     /**
@@ -71,10 +167,41 @@ public class FileHandler {
      * 
      * @return List of doctors
      */
-    @SuppressWarnings("unchecked")
     public static List<Doctor> loadDoctors() {
-        Object data = loadFromFile(DOCTORS_FILE);
-        return data != null ? (List<Doctor>) data : new ArrayList<>();
+        List<Doctor> doctors = COMPACTOR.load(DOCTOR_JOURNAL, () -> loadList(DOCTORS_FILE, Codecs.DOCTOR));
+        COMPACTOR.compactIfDue(DOCTOR_JOURNAL);
+        return doctors;
+    }
+
+    /**
+     * Journal an added or updated doctor
+     * 
+     * @param op     ADD or UPDATE
+     * @param doctor Doctor in its new state
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendDoctor(Op op, Doctor doctor) {
+        return DOCTOR_JOURNAL.append(op, doctor);
+    }
+
+    /**
+     * Journal a deleted doctor
+     * 
+     * @param doctorId ID of the deleted doctor
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendDoctorDeletion(String doctorId) {
+        return DOCTOR_JOURNAL.appendDelete(doctorId);
+    }
+
+    /**
+     * Register the live doctor list used for journal compaction
+     * 
+     * @param source Supplier of the current doctors list
+     * @param lock   Lock held while compaction reads the list; excludes changes
+     */
+    public static void registerDoctorSource(Supplier<List<Doctor>> source, Lock lock) {
+        COMPACTOR.setSource(DOCTOR_JOURNAL, source, lock);
     }
 
     // ==================== STAFF ====================
@@ -85,7 +212,7 @@ public class FileHandler {
      * @param staffList List of staff
      */
     public static void saveStaff(List<Staff> staffList) {
-        saveToFile(STAFF_FILE, staffList);
+        saveList(STAFF_FILE, Codecs.STAFF, staffList);
     }
 
     /**
@@ -93,10 +220,8 @@ public class FileHandler {
      * 
      * @return List of staff
      */
-    @SuppressWarnings("unchecked")
     public static List<Staff> loadStaff() {
-        Object data = loadFromFile(STAFF_FILE);
-        return data != null ? (List<Staff>) data : new ArrayList<>();
+        return loadList(STAFF_FILE, Codecs.STAFF);
     }
 
     // ==================== APPOINTMENTS ====================
@@ -107,7 +232,8 @@ public class FileHandler {
      * @param appointments List of appointments
      */
     public static void saveAppointments(List<Appointment> appointments) {
-        saveToFile(APPOINTMENTS_FILE, appointments);
+        initializeDataDirectory();
+        COMPACTOR.snapshotNow(APPOINTMENT_JOURNAL, appointments);
     }
 
     /**
@@ -115,10 +241,60 @@ public class FileHandler {
      * 
      * @return List of appointments
      */
-    @SuppressWarnings("unchecked")
     public static List<Appointment> loadAppointments() {
-        Object data = loadFromFile(APPOINTMENTS_FILE);
-        return data != null ? (List<Appointment>) data : new ArrayList<>();
+        List<Appointment> appointments = COMPACTOR.load(APPOINTMENT_JOURNAL, () -> loadList(APPOINTMENTS_FILE, Codecs.APPOINTMENT));
+        APPOINTMENT_SLOTS.overlay(appointments);
+        COMPACTOR.compactIfDue(APPOINTMENT_JOURNAL);
+        return appointments;
+    }
+
+    /**
+     * Journal an added or updated appointment
+     * 
+     * @param op          ADD or UPDATE
+     * @param appointment Appointment in its new state
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendAppointment(Op op, Appointment appointment) {
+        CompletableFuture<Void> written = APPOINTMENT_JOURNAL.append(op, appointment);
+        APPOINTMENT_SLOTS.put(appointment);
+        return CompletableFuture.allOf(written, WRITE_QUEUE.sync(APPOINTMENT_SLOTS_SYNC));
+    }
+
+    /**
+     * Persist a changed appointment status in place.
+     * Falls back to journaling the whole appointment if the values do not fit
+     * the slot file.
+     * 
+     * @param appointment Appointment in its new state
+     * @return Future completed once the change is on disk
+     */
+    public static CompletableFuture<Void> updateAppointmentStatus(Appointment appointment) {
+        if (!APPOINTMENT_SLOTS.update(appointment)) {
+            return appendAppointment(Op.UPDATE, appointment);
+        }
+        return WRITE_QUEUE.sync(APPOINTMENT_SLOTS_SYNC);
+    }
+
+    /**
+     * Journal a deleted appointment
+     * 
+     * @param appointmentId ID of the deleted appointment
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendAppointmentDeletion(String appointmentId) {
+        APPOINTMENT_SLOTS.remove(appointmentId);
+        return APPOINTMENT_JOURNAL.appendDelete(appointmentId);
+    }
+
+    /**
+     * Register the live appointment list used for journal compaction
+     * 
+     * @param source Supplier of the current appointments list
+     * @param lock   Lock held while compaction reads the list; excludes changes
+     */
+    public static void registerAppointmentSource(Supplier<List<Appointment>> source, Lock lock) {
+        COMPACTOR.setSource(APPOINTMENT_JOURNAL, source, lock);
     }
 
     // ==================== BILLS ====================
@@ -129,7 +305,8 @@ public class FileHandler {
      * @param bills List of bills
      */
     public static void saveBills(List<Bill> bills) {
-        saveToFile(BILLS_FILE, bills);
+        initializeDataDirectory();
+        COMPACTOR.snapshotNow(BILL_JOURNAL, bills);
     }
 
     /**
@@ -137,10 +314,60 @@ public class FileHandler {
      * 
      * @return List of bills
      */
-    @SuppressWarnings("unchecked")
     public static List<Bill> loadBills() {
-        Object data = loadFromFile(BILLS_FILE);
-        return data != null ? (List<Bill>) data : new ArrayList<>();
+        List<Bill> bills = COMPACTOR.load(BILL_JOURNAL, () -> loadList(BILLS_FILE, Codecs.BILL));
+        BILL_SLOTS.overlay(bills);
+        COMPACTOR.compactIfDue(BILL_JOURNAL);
+        return bills;
+    }
+
+    /**
+     * Journal an added or updated bill
+     * 
+     * @param op   ADD or UPDATE
+     * @param bill Bill in its new state
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendBill(Op op, Bill bill) {
+        CompletableFuture<Void> written = BILL_JOURNAL.append(op, bill);
+        BILL_SLOTS.put(bill);
+        return CompletableFuture.allOf(written, WRITE_QUEUE.sync(BILL_SLOTS_SYNC));
+    }
+
+    /**
+     * Persist a changed bill status and payment fields in place.
+     * Falls back to journaling the whole bill if the values do not fit
+     * the slot file.
+     * 
+     * @param bill Bill in its new state
+     * @return Future completed once the change is on disk
+     */
+    public static CompletableFuture<Void> updateBillPayment(Bill bill) {
+        if (!BILL_SLOTS.update(bill)) {
+            return appendBill(Op.UPDATE, bill);
+        }
+        return WRITE_QUEUE.sync(BILL_SLOTS_SYNC);
+    }
+
+    /**
+     * Journal a deleted bill
+     * 
+     * @param billId ID of the deleted bill
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendBillDeletion(String billId) {
+        BILL_SLOTS.remove(billId);
+        return BILL_JOURNAL.appendDelete(billId);
+    }
+
+    /**
+     * Register the live bill list used for journal compaction
+     * 
+     * @param source Supplier of the current bills list
+     * @param lock   Lock held while compaction reads the list; excludes changes
+     */
+    public static void registerBillSource(Supplier<List<Bill>> source, Lock lock) {
+        COMPACTOR.setSource(BILL_JOURNAL, source, lock);
     }
 
     // ==================== ROOMS ====================
@@ -151,7 +378,8 @@ public class FileHandler {
      * @param rooms List of rooms
      */
     public static void saveRooms(List<Room> rooms) {
-        saveToFile(ROOMS_FILE, rooms);
+        initializeDataDirectory();
+        COMPACTOR.snapshotNow(ROOM_JOURNAL, rooms);
     }
 
     /**
@@ -159,10 +387,41 @@ public class FileHandler {
      * 
      * @return List of rooms
      */
-    @SuppressWarnings("unchecked")
     public static List<Room> loadRooms() {
-        Object data = loadFromFile(ROOMS_FILE);
-        return data != null ? (List<Room>) data : new ArrayList<>();
+        List<Room> rooms = COMPACTOR.load(ROOM_JOURNAL, () -> loadList(ROOMS_FILE, Codecs.ROOM));
+        COMPACTOR.compactIfDue(ROOM_JOURNAL);
+        return rooms;
+    }
+
+    /**
+     * Journal an added or updated room
+     * 
+     * @param op   ADD or UPDATE
+     * @param room Room in its new state
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendRoom(Op op, Room room) {
+        return ROOM_JOURNAL.append(op, room);
+    }
+
+    /**
+     * Journal a deleted room
+     * 
+     * @param roomNumber Number of the deleted room
+     * @return Future completed once the entry is on disk
+     */
+    public static CompletableFuture<Void> appendRoomDeletion(String roomNumber) {
+        return ROOM_JOURNAL.appendDelete(roomNumber);
+    }
+
+    /**
+     * Register the live room list used for journal compaction
+     * 
+     * @param source Supplier of the current rooms list
+     * @param lock   Lock held while compaction reads the list; excludes changes
+     */
+    public static void registerRoomSource(Supplier<List<Room>> source, Lock lock) {
+        COMPACTOR.setSource(ROOM_JOURNAL, source, lock);
     }
 
     // ==================== DEPARTMENTS ====================
@@ -173,7 +432,7 @@ public class FileHandler {
      * @param departments List of departments
      */
     public static void saveDepartments(List<Department> departments) {
-        saveToFile(DEPARTMENTS_FILE, departments);
+        saveList(DEPARTMENTS_FILE, Codecs.DEPARTMENT, departments);
     }
 
     /**
@@ -181,10 +440,8 @@ public class FileHandler {
      * 
      * @return List of departments
      */
-    @SuppressWarnings("unchecked")
     public static List<Department> loadDepartments() {
-        Object data = loadFromFile(DEPARTMENTS_FILE);
-        return data != null ? (List<Department>) data : new ArrayList<>();
+        return loadList(DEPARTMENTS_FILE, Codecs.DEPARTMENT);
     }
 
     // ==================== MEDICAL RECORDS ====================
@@ -195,7 +452,7 @@ public class FileHandler {
      * @param records List of medical records
      */
     public static void saveMedicalRecords(List<MedicalRecord> records) {
-        saveToFile(MEDICAL_RECORDS_FILE, records);
+        saveList(MEDICAL_RECORDS_FILE, Codecs.MEDICAL_RECORD, records);
     }
 
     /**
@@ -203,10 +460,8 @@ public class FileHandler {
      * 
      * @return List of medical records
      */
-    @SuppressWarnings("unchecked")
     public static List<MedicalRecord> loadMedicalRecords() {
-        Object data = loadFromFile(MEDICAL_RECORDS_FILE);
-        return data != null ? (List<MedicalRecord>) data : new ArrayList<>();
+        return loadList(MEDICAL_RECORDS_FILE, Codecs.MEDICAL_RECORD);
     }
 
     // ==================== USERS ====================
@@ -217,7 +472,7 @@ public class FileHandler {
      * @param users List of users
      */
     public static void saveUsers(List<User> users) {
-        saveToFile(USERS_FILE, users);
+        saveList(USERS_FILE, Codecs.USER, users);
     }
 
     /**
@@ -225,31 +480,254 @@ public class FileHandler {
      * 
      * @return List of users
      */
-    @SuppressWarnings("unchecked")
     public static List<User> loadUsers() {
-        Object data = loadFromFile(USERS_FILE);
-        return data != null ? (List<User>) data : new ArrayList<>();
+        return loadList(USERS_FILE, Codecs.USER);
+    }
+
+    /**
+     * Write all queued journal and slot changes without waiting for the
+     * batching window
+     * 
+     * @return Future completed once every queued change is on disk
+     */
+    public static CompletableFuture<Void> flush() {
+        return WRITE_QUEUE.flush();
+    }
+
+    // ==================== COMPACTION ====================
+
+    /**
+     * Get the thresholds used for journal compaction
+     * 
+     * @return Current compaction policy
+     */
+    public static CompactionPolicy getCompactionPolicy() {
+        return COMPACTOR.getPolicy();
+    }
+
+    /**
+     * Set the thresholds used for journal compaction
+     * 
+     * @param policy Compaction policy
+     */
+    public static void setCompactionPolicy(CompactionPolicy policy) {
+        COMPACTOR.setPolicy(policy);
+    }
+
+    // ==================== BULK IMPORT ====================
+
+    /**
+     * Streaming writer that replaces a whole data file, for imports too large
+     * to build as a list first. Records go to a temporary file which replaces
+     * the data file on {@link #commit()}; closing without committing discards
+     * it. The journal and slot file of the entity type are dropped on commit,
+     * since they describe the replaced data, so no manager of that type may
+     * be running during an import.
+     *
+     * @param <T> Record type
+     */
+    public static class BulkWriter<T> implements Closeable {
+
+        /**
+         * Puts the finished temporary file in place of the data file
+         */
+        private interface Installer {
+            void install(File temp) throws IOException;
+        }
+
+        private final File temp;
+        private final RecordFile.Writer<T> writer;
+        private final Installer installer;
+        private boolean closed;
+
+        private BulkWriter(String filename, EntityCodec<T> codec, Installer installer) throws IOException {
+            initializeDataDirectory();
+            this.temp = new File(filename + ".import");
+            this.writer = new RecordFile.Writer<>(temp, codec);
+            this.installer = installer;
+        }
+
+        /**
+         * Append a record
+         *
+         * @param entity Record to write
+         */
+        public void write(T entity) throws IOException {
+            writer.write(entity);
+        }
+
+        /**
+         * Get the number of records written so far
+         *
+         * @return Record count
+         */
+        public long getCount() {
+            return writer.getCount();
+        }
+
+        /**
+         * Finish the file, force it to disk and put it in place of the data file
+         */
+        public void commit() throws IOException {
+            if (closed) {
+                throw new IOException(temp + " is already closed");
+            }
+            closed = true;
+            try {
+                writer.close();
+                try (FileOutputStream sync = new FileOutputStream(temp, true)) {
+                    sync.getFD().sync();
+                }
+                installer.install(temp);
+            } catch (IOException | RuntimeException e) {
+                temp.delete();
+                throw e;
+            }
+        }
+
+        /**
+         * Discard the records unless they were committed
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + temp + ": " + e.getMessage());
+            }
+            temp.delete();
+        }
+    }
+
+    /**
+     * Open a writer that replaces all patients
+     *
+     * @return Bulk writer, to be committed when complete
+     */
+    public static BulkWriter<Patient> importPatients() throws IOException {
+        return new BulkWriter<>(PATIENTS_FILE, Codecs.PATIENT,
+                temp -> COMPACTOR.replaceSnapshot(PATIENT_JOURNAL, temp));
+    }
+
+    /**
+     * Open a writer that replaces all doctors
+     *
+     * @return Bulk writer, to be committed when complete
+     */
+    public static BulkWriter<Doctor> importDoctors() throws IOException {
+        return new BulkWriter<>(DOCTORS_FILE, Codecs.DOCTOR,
+                temp -> COMPACTOR.replaceSnapshot(DOCTOR_JOURNAL, temp));
+    }
+
+    /**
+     * Open a writer that replaces all appointments
+     *
+     * @return Bulk writer, to be committed when complete
+     */
+    public static BulkWriter<Appointment> importAppointments() throws IOException {
+        return new BulkWriter<>(APPOINTMENTS_FILE, Codecs.APPOINTMENT, temp -> {
+            APPOINTMENT_SLOTS.clear();
+            COMPACTOR.replaceSnapshot(APPOINTMENT_JOURNAL, temp);
+        });
+    }
+
+    /**
+     * Open a writer that replaces all bills
+     *
+     * @return Bulk writer, to be committed when complete
+     */
+    public static BulkWriter<Bill> importBills() throws IOException {
+        return new BulkWriter<>(BILLS_FILE, Codecs.BILL, temp -> {
+            BILL_SLOTS.clear();
+            COMPACTOR.replaceSnapshot(BILL_JOURNAL, temp);
+        });
+    }
+
+    /**
+     * Open a writer that replaces all rooms
+     *
+     * @return Bulk writer, to be committed when complete
+     */
+    public static BulkWriter<Room> importRooms() throws IOException {
+        return new BulkWriter<>(ROOMS_FILE, Codecs.ROOM,
+                temp -> COMPACTOR.replaceSnapshot(ROOM_JOURNAL, temp));
+    }
+
+    /**
+     * Open a writer that replaces all medical records
+     *
+     * @return Bulk writer, to be committed when complete
+     */
+    public static BulkWriter<MedicalRecord> importMedicalRecords() throws IOException {
+        return new BulkWriter<>(MEDICAL_RECORDS_FILE, Codecs.MEDICAL_RECORD,
+                temp -> Files.move(temp.toPath(), new File(MEDICAL_RECORDS_FILE).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE));
     }
 
     // ==================== GENERIC FILE OPERATIONS ====================
 
     /**
-     * Generic method to save object to file
+     * Save a list in the codec format, replacing the old file atomically
      * 
      * @param filename File path
-     * @param data     Data to save
+     * @param codec    Entity codec
+     * @param list     List to save
      */
-    private static void saveToFile(String filename, Object data) {
+    private static <T> void saveList(String filename, EntityCodec<T> codec, List<T> list) {
         initializeDataDirectory();
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(data);
+        File target = new File(filename);
+        File temp = new File(filename + ".tmp");
+        try {
+            RecordFile.write(temp, codec, list);
+            try (FileOutputStream sync = new FileOutputStream(temp, true)) {
+                sync.getFD().sync();
+            }
+            Files.move(temp.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             System.err.println("Error saving to " + filename + ": " + e.getMessage());
+            temp.delete();
+        }
+    }
+
+    /**
+     * Load a list saved in the codec format.
+     * A legacy serialized file is converted to the codec format on first load.
+     * 
+     * @param filename File path
+     * @param codec    Entity codec
+     * @return Loaded list, or an empty list if the file is missing or unreadable
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> loadList(String filename, EntityCodec<T> codec) {
+        File file = new File(filename);
+        if (!file.exists()) {
+            return new ArrayList<>();
         }
+        if (RecordFile.isRecordFile(file)) {
+            try {
+                return RecordFile.read(file, codec);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading from " + filename + ": " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+
+        Object data = loadFromFile(filename);
+        if (data == null) {
+            return new ArrayList<>();
+        }
+        List<T> list = (List<T>) data;
+        saveList(filename, codec, list);
+        return list;
     }
 
     /**
-     * Generic method to load object from file
+     * Load a legacy Java serialization file
      * 
      * @param filename File path
      * @return Loaded data or null
@@ -290,5 +768,16 @@ public class FileHandler {
         new File(ROOMS_FILE).delete();
         new File(DEPARTMENTS_FILE).delete();
         new File(MEDICAL_RECORDS_FILE).delete();
+        PATIENT_JOURNAL.delete();
+        DOCTOR_JOURNAL.delete();
+        APPOINTMENT_JOURNAL.delete();
+        BILL_JOURNAL.delete();
+        ROOM_JOURNAL.delete();
+        try {
+            APPOINTMENT_SLOTS.clear();
+            BILL_SLOTS.clear();
+        } catch (IOException e) {
+            System.err.println("Error clearing slot files: " + e.getMessage());
+        }
     }
 }
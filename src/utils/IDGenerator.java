@@ -1,25 +1,62 @@
 package utils;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import utils.storage.SequenceFile;
+
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 
 /**
  * Utility class for generating unique IDs for different entities.
  * Uses a combination of prefix, date, and sequential number.
+ *
+ * Sequence numbers come from a persistent sequence file that reserves them
+ * in blocks, so IDs are never reused across restarts and generating one
+ * only touches the disk once per block. The date part is formatted once per
+ * day and IDs are assembled directly into a char array, so the only
+ * allocation per ID is the resulting string. If the next block cannot be
+ * persisted, generating an ID fails with an UncheckedIOException rather
+ * than return a number that could be handed out again after a restart.
  */
 public class IDGenerator {
 
-    // Counters for different entity types
-    private static AtomicInteger patientCounter = new AtomicInteger(1000);
-    private static AtomicInteger doctorCounter = new AtomicInteger(100);
-    private static AtomicInteger staffCounter = new AtomicInteger(500);
-    private static AtomicInteger appointmentCounter = new AtomicInteger(1);
-    private static AtomicInteger billCounter = new AtomicInteger(1);
-    private static AtomicInteger recordCounter = new AtomicInteger(1);
+    // Counter names and the values they start from
+    private static final String PATIENT = "patient";
+    private static final String DOCTOR = "doctor";
+    private static final String STAFF = "staff";
+    private static final String APPOINTMENT = "appointment";
+    private static final String BILL = "bill";
+    private static final String RECORD = "record";
+    private static final int PATIENT_START = 1000;
+    private static final int DOCTOR_START = 100;
+    private static final int STAFF_START = 500;
+    private static final int APPOINTMENT_START = 1;
+    private static final int BILL_START = 1;
+    private static final int RECORD_START = 1;
+
+    private static final int BLOCK_SIZE = 1000;
+
+    private static final SequenceFile SEQUENCES = new SequenceFile(FileHandler.SEQUENCES_FILE, BLOCK_SIZE);
 
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
 
+    /**
+     * Date part of the IDs generated today
+     */
+    private static final class DayPrefix {
+        private final char[] date;
+        // Epoch millis of the next midnight, when the prefix has to be rebuilt
+        private final long validUntil;
+
+        DayPrefix(char[] date, long validUntil) {
+            this.date = date;
+            this.validUntil = validUntil;
+        }
+    }
+
+    private static volatile DayPrefix dayPrefix = createDayPrefix();
+
     /**
      * Generate a unique Patient ID
      * Format: PAT-YYYYMMDD-XXXX
@@ -27,9 +64,8 @@ public class IDGenerator {
      * @return Generated patient ID
      */
     public static String generatePatientId() {
-        String date = LocalDate.now().format(DATE_FORMAT);
-        int num = patientCounter.incrementAndGet();
-        return String.format("PAT-%s-%04d", date, num);
+        long num = SEQUENCES.next(PATIENT, PATIENT_START);
+        return formatId("PAT", today(), num, 4);
     }
 
     /**
@@ -39,8 +75,8 @@ public class IDGenerator {
      * @return Generated doctor ID
      */
     public static String generateDoctorId() {
-        int num = doctorCounter.incrementAndGet();
-        return String.format("DOC-%03d", num);
+        long num = SEQUENCES.next(DOCTOR, DOCTOR_START);
+        return formatId("DOC", null, num, 3);
     }
 
     /**
@@ -50,8 +86,8 @@ public class IDGenerator {
      * @return Generated staff ID
      */
     public static String generateStaffId() {
-        int num = staffCounter.incrementAndGet();
-        return String.format("STF-%03d", num);
+        long num = SEQUENCES.next(STAFF, STAFF_START);
+        return formatId("STF", null, num, 3);
     }
 
     /**
@@ -61,9 +97,8 @@ public class IDGenerator {
      * @return Generated appointment ID
      */
     public static String generateAppointmentId() {
-        String date = LocalDate.now().format(DATE_FORMAT);
-        int num = appointmentCounter.incrementAndGet();
-        return String.format("APT-%s-%05d", date, num);
+        long num = SEQUENCES.next(APPOINTMENT, APPOINTMENT_START);
+        return formatId("APT", today(), num, 5);
     }
 
     /**
@@ -73,9 +108,8 @@ public class IDGenerator {
      * @return Generated bill ID
      */
     public static String generateBillId() {
-        String date = LocalDate.now().format(DATE_FORMAT);
-        int num = billCounter.incrementAndGet();
-        return String.format("BILL-%s-%05d", date, num);
+        long num = SEQUENCES.next(BILL, BILL_START);
+        return formatId("BILL", today(), num, 5);
     }
 
     /**
@@ -85,9 +119,8 @@ public class IDGenerator {
      * @return Generated medical record ID
      */
     public static String generateMedicalRecordId() {
-        String date = LocalDate.now().format(DATE_FORMAT);
-        int num = recordCounter.incrementAndGet();
-        return String.format("MR-%s-%05d", date, num);
+        long num = SEQUENCES.next(RECORD, RECORD_START);
+        return formatId("MR", today(), num, 5);
     }
 
     /**
@@ -115,26 +148,136 @@ public class IDGenerator {
     }
 
     /**
-     * Reset all counters (useful for testing)
+     * Get today's date part, rebuilding it after midnight
+     * 
+     * @return Date as yyyyMMdd characters
+     */
+    private static char[] today() {
+        DayPrefix prefix = dayPrefix;
+        if (System.currentTimeMillis() >= prefix.validUntil) {
+            prefix = createDayPrefix();
+            dayPrefix = prefix;
+        }
+        return prefix.date;
+    }
+
+    /**
+     * Format the date part for the current day
+     * 
+     * @return Day prefix valid until the next midnight
+     */
+    private static DayPrefix createDayPrefix() {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zone);
+        long nextMidnight = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new DayPrefix(today.format(DATE_FORMAT).toCharArray(), nextMidnight);
+    }
+
+    /**
+     * Assemble an ID such as PAT-20240101-01001 without intermediate objects
+     * 
+     * @param type  Type prefix
+     * @param date  Date part, or null for IDs without one
+     * @param num   Sequence number
+     * @param width Minimum number of digits (zero padded)
+     * @return Formatted ID
+     */
+    private static String formatId(String type, char[] date, long num, int width) {
+        int digits = 1;
+        for (long rest = num / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int start = type.length() + 1 + (date == null ? 0 : date.length + 1);
+        char[] id = new char[start + Math.max(digits, width)];
+        type.getChars(0, type.length(), id, 0);
+        id[type.length()] = '-';
+        if (date != null) {
+            System.arraycopy(date, 0, id, type.length() + 1, date.length);
+            id[start - 1] = '-';
+        }
+        for (int i = id.length - 1; i >= start; i--) {
+            id[i] = (char) ('0' + num % 10);
+            num /= 10;
+        }
+        return new String(id);
+    }
+
+    /**
+     * Reset all counters and forget the persisted sequences (useful for testing)
      */
     public static void resetCounters() {
-        patientCounter.set(1000);
-        doctorCounter.set(100);
-        staffCounter.set(500);
-        appointmentCounter.set(1);
-        billCounter.set(1);
-        recordCounter.set(1);
+        SEQUENCES.reset();
     }
 
     /**
-     * Set counter values (useful when loading data from file)
+     * Raise counter values so that the next IDs come after the given ones
      */
     public static void setCounters(int patient, int doctor, int staff, int appointment, int bill, int record) {
-        patientCounter.set(patient);
-        doctorCounter.set(doctor);
-        staffCounter.set(staff);
-        appointmentCounter.set(appointment);
-        billCounter.set(bill);
-        recordCounter.set(record);
+        SEQUENCES.advanceTo(PATIENT, PATIENT_START, patient);
+        SEQUENCES.advanceTo(DOCTOR, DOCTOR_START, doctor);
+        SEQUENCES.advanceTo(STAFF, STAFF_START, staff);
+        SEQUENCES.advanceTo(APPOINTMENT, APPOINTMENT_START, appointment);
+        SEQUENCES.advanceTo(BILL, BILL_START, bill);
+        SEQUENCES.advanceTo(RECORD, RECORD_START, record);
+    }
+
+    /**
+     * Make sure new IDs never repeat loaded ones, e.g. from data written
+     * before sequences were persisted. IDs of an unknown format are ignored.
+     * 
+     * @param ids Existing IDs of any entity type
+     */
+    public static void advancePast(Collection<String> ids) {
+        long patient = 0, doctor = 0, staff = 0, appointment = 0, bill = 0, record = 0;
+        for (String id : ids) {
+            long num = sequenceNumber(id);
+            if (num < 0) {
+                continue;
+            }
+            if (id.startsWith("PAT-")) {
+                patient = Math.max(patient, num);
+            } else if (id.startsWith("DOC-")) {
+                doctor = Math.max(doctor, num);
+            } else if (id.startsWith("STF-")) {
+                staff = Math.max(staff, num);
+            } else if (id.startsWith("APT-")) {
+                appointment = Math.max(appointment, num);
+            } else if (id.startsWith("BILL-")) {
+                bill = Math.max(bill, num);
+            } else if (id.startsWith("MR-")) {
+                record = Math.max(record, num);
+            }
+        }
+        SEQUENCES.advanceTo(PATIENT, PATIENT_START, patient);
+        SEQUENCES.advanceTo(DOCTOR, DOCTOR_START, doctor);
+        SEQUENCES.advanceTo(STAFF, STAFF_START, staff);
+        SEQUENCES.advanceTo(APPOINTMENT, APPOINTMENT_START, appointment);
+        SEQUENCES.advanceTo(BILL, BILL_START, bill);
+        SEQUENCES.advanceTo(RECORD, RECORD_START, record);
+    }
+
+    /**
+     * Get the sequence number at the end of an ID
+     * 
+     * @param id ID such as PAT-20240101-1001
+     * @return Sequence number, or -1 if the ID does not end in one
+     */
+    private static long sequenceNumber(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int dash = id.lastIndexOf('-');
+        if (dash < 0 || dash == id.length() - 1 || id.length() - dash > 19) {
+            return -1;
+        }
+        long num = 0;
+        for (int i = dash + 1; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            num = num * 10 + (c - '0');
+        }
+        return num;
     }
 }
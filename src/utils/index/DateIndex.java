@@ -0,0 +1,159 @@
+package utils.index;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Index of entities bucketed by calendar day, each day's entries sorted by
+ * time.
+ *
+ * As with {@link SecondaryIndex}, the time an entity was indexed under is
+ * remembered per primary key, so entities changed in place are re-indexed
+ * correctly.
+ *
+ * @param <T> Entity type
+ */
+public class DateIndex<T> {
+
+    /**
+     * Position of one entity within its day
+     */
+    private static final class Slot implements Comparable<Slot> {
+        private final LocalDateTime time;
+        // null sorts after every entity at the same time (range bound)
+        private final String id;
+
+        Slot(LocalDateTime time, String id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int result = time.compareTo(other.time);
+            if (result != 0) {
+                return result;
+            }
+            if (id == null || other.id == null) {
+                return id == other.id ? 0 : (id == null ? 1 : -1);
+            }
+            return id.compareTo(other.id);
+        }
+    }
+
+    private final Function<T, String> idFunction;
+    private final Function<T, LocalDateTime> timeFunction;
+
+    private final NavigableMap<LocalDate, NavigableMap<Slot, T>> byDay = new TreeMap<>();
+    private final Map<String, Slot> indexed = new HashMap<>();
+
+    /**
+     * Create an index
+     *
+     * @param idFunction   Extracts the primary key
+     * @param timeFunction Extracts the date/time; entities without one are not indexed
+     */
+    public DateIndex(Function<T, String> idFunction, Function<T, LocalDateTime> timeFunction) {
+        this.idFunction = idFunction;
+        this.timeFunction = timeFunction;
+    }
+
+    /**
+     * Index a new entity or re-index a changed one
+     *
+     * @param entity Entity in its current state
+     */
+    public void put(T entity) {
+        String id = idFunction.apply(entity);
+        remove(id);
+        LocalDateTime time = timeFunction.apply(entity);
+        if (time == null) {
+            return;
+        }
+        Slot slot = new Slot(time, id);
+        byDay.computeIfAbsent(time.toLocalDate(), d -> new TreeMap<>()).put(slot, entity);
+        indexed.put(id, slot);
+    }
+
+    /**
+     * Remove an entity from the index
+     *
+     * @param id Primary key of the entity
+     */
+    public void remove(String id) {
+        Slot previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        LocalDate day = previous.time.toLocalDate();
+        NavigableMap<Slot, T> entries = byDay.get(day);
+        entries.remove(previous);
+        if (entries.isEmpty()) {
+            byDay.remove(day);
+        }
+    }
+
+    /**
+     * Replace the index contents
+     *
+     * @param entities All entities
+     */
+    public void rebuild(Collection<T> entities) {
+        byDay.clear();
+        indexed.clear();
+        for (T entity : entities) {
+            put(entity);
+        }
+    }
+
+    /**
+     * Get the entities of a day in time order
+     *
+     * @param date Day
+     * @return Entities on that day
+     */
+    public List<T> get(LocalDate date) {
+        NavigableMap<Slot, T> entries = byDay.get(date);
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Get number of entities on a day
+     *
+     * @param date Day
+     * @return Entity count
+     */
+    public int count(LocalDate date) {
+        NavigableMap<Slot, T> entries = byDay.get(date);
+        return entries == null ? 0 : entries.size();
+    }
+
+    /**
+     * Get the entities strictly after a date/time in time order
+     *
+     * @param from   Exclusive lower bound
+     * @param filter Entities to include
+     * @return Matching entities
+     */
+    public List<T> after(LocalDateTime from, Predicate<T> filter) {
+        List<T> result = new ArrayList<>();
+        Slot lower = new Slot(from, null);
+        for (NavigableMap<Slot, T> entries : byDay.tailMap(from.toLocalDate(), true).values()) {
+            for (T entity : entries.tailMap(lower, false).values()) {
+                if (filter.test(entity)) {
+                    result.add(entity);
+                }
+            }
+        }
+        return result;
+    }
+}
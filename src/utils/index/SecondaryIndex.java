@@ -0,0 +1,264 @@
+package utils.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Index from a non-unique key (e.g. patient ID) to the entities carrying it,
+ * kept sorted by a secondary value (e.g. appointment time).
+ *
+ * Entities are often changed in place before the manager is told about it,
+ * so the key and sort value an entity was indexed under are remembered per
+ * primary key. Re-indexing always removes the remembered position first,
+ * whatever the entity looks like now.
+ *
+ * @param <T> Entity type
+ * @param <S> Sort value type
+ */
+public class SecondaryIndex<T, S extends Comparable<? super S>> {
+
+    /**
+     * Position of one entity within its key's sorted map
+     */
+    private static final class Position<S extends Comparable<? super S>> implements Comparable<Position<S>> {
+        private final S sortValue;
+        private final String id;
+        // -1 / 1 for range bounds sorting before / after every entry with the same value
+        private final int bound;
+
+        Position(S sortValue, String id) {
+            this(sortValue, id, 0);
+        }
+
+        Position(S sortValue, String id, int bound) {
+            this.sortValue = sortValue;
+            this.id = id;
+            this.bound = bound;
+        }
+
+        @Override
+        public int compareTo(Position<S> other) {
+            if (sortValue != other.sortValue) {
+                if (sortValue == null) {
+                    return -1;
+                }
+                if (other.sortValue == null) {
+                    return 1;
+                }
+                int result = sortValue.compareTo(other.sortValue);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * Where an entity is currently indexed
+     */
+    private static final class Indexed<S extends Comparable<? super S>> {
+        private final String key;
+        private final Position<S> position;
+
+        Indexed(String key, Position<S> position) {
+            this.key = key;
+            this.position = position;
+        }
+    }
+
+    private final Function<T, String> idFunction;
+    private final Function<T, String> keyFunction;
+    private final Function<T, S> sortFunction;
+
+    private final Map<String, NavigableMap<Position<S>, T>> byKey = new HashMap<>();
+    private final Map<String, Indexed<S>> indexed = new HashMap<>();
+
+    /**
+     * Create an index
+     *
+     * @param idFunction   Extracts the primary key
+     * @param keyFunction  Extracts the indexed key; entities with a null key are not indexed
+     * @param sortFunction Extracts the value entries are sorted by (nulls first)
+     */
+    public SecondaryIndex(Function<T, String> idFunction, Function<T, String> keyFunction,
+            Function<T, S> sortFunction) {
+        this.idFunction = idFunction;
+        this.keyFunction = keyFunction;
+        this.sortFunction = sortFunction;
+    }
+
+    /**
+     * Index a new entity or re-index a changed one
+     *
+     * @param entity Entity in its current state
+     */
+    public void put(T entity) {
+        String id = idFunction.apply(entity);
+        remove(id);
+        String key = keyFunction.apply(entity);
+        if (key == null) {
+            return;
+        }
+        Position<S> position = new Position<>(sortFunction.apply(entity), id);
+        byKey.computeIfAbsent(key, k -> new TreeMap<>()).put(position, entity);
+        indexed.put(id, new Indexed<>(key, position));
+    }
+
+    /**
+     * Remove an entity from the index
+     *
+     * @param id Primary key of the entity
+     */
+    public void remove(String id) {
+        Indexed<S> previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        NavigableMap<Position<S>, T> entries = byKey.get(previous.key);
+        entries.remove(previous.position);
+        if (entries.isEmpty()) {
+            byKey.remove(previous.key);
+        }
+    }
+
+    /**
+     * Replace the index contents
+     *
+     * @param entities All entities
+     */
+    public void rebuild(Collection<T> entities) {
+        byKey.clear();
+        indexed.clear();
+        for (T entity : entities) {
+            put(entity);
+        }
+    }
+
+    /**
+     * Get the entities with a key in ascending sort order
+     *
+     * @param key Indexed key
+     * @return Matching entities
+     */
+    public List<T> get(String key) {
+        NavigableMap<Position<S>, T> entries = byKey.get(key);
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Get the entities with a key in descending sort order
+     *
+     * @param key Indexed key
+     * @return Matching entities
+     */
+    public List<T> getDescending(String key) {
+        NavigableMap<Position<S>, T> entries = byKey.get(key);
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries.descendingMap().values());
+    }
+
+    /**
+     * Get the entity with a key that sorts first
+     *
+     * @param key Indexed key
+     * @return Entity, or null if none has the key
+     */
+    public T first(String key) {
+        NavigableMap<Position<S>, T> entries = byKey.get(key);
+        return entries == null ? null : entries.firstEntry().getValue();
+    }
+
+    /**
+     * Check whether any entity with a key has a sort value strictly between
+     * two values
+     *
+     * @param key           Indexed key
+     * @param fromExclusive Lower bound
+     * @param toExclusive   Upper bound
+     * @return true if such an entity exists
+     */
+    public boolean anyBetween(String key, S fromExclusive, S toExclusive) {
+        return latestBetween(key, fromExclusive, toExclusive) != null;
+    }
+
+    /**
+     * Check whether any entity other than a given one has a key and a sort
+     * value strictly between two values
+     *
+     * @param key           Indexed key
+     * @param fromExclusive Lower bound
+     * @param toExclusive   Upper bound
+     * @param excludedId    Primary key of the entity to ignore
+     * @return true if such an entity exists
+     */
+    public boolean anyOtherBetween(String key, S fromExclusive, S toExclusive, String excludedId) {
+        NavigableMap<Position<S>, T> entries = byKey.get(key);
+        if (entries == null) {
+            return false;
+        }
+        Position<S> lower = new Position<>(fromExclusive, null, 1);
+        Position<S> upper = new Position<>(toExclusive, null, -1);
+        if (lower.compareTo(upper) >= 0) {
+            return false;
+        }
+        for (Position<S> position : entries.subMap(lower, true, upper, true).keySet()) {
+            if (!position.id.equals(excludedId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the key an entity is currently indexed under
+     *
+     * @param id Primary key of the entity
+     * @return Indexed key, or null if the entity is not indexed
+     */
+    public String keyOf(String id) {
+        Indexed<S> current = indexed.get(id);
+        return current == null ? null : current.key;
+    }
+
+    /**
+     * Get the largest indexed sort value strictly between two values
+     *
+     * @param key           Indexed key
+     * @param fromExclusive Lower bound
+     * @param toExclusive   Upper bound
+     * @return Sort value, or null if no entity with the key lies in the range
+     */
+    public S latestBetween(String key, S fromExclusive, S toExclusive) {
+        NavigableMap<Position<S>, T> entries = byKey.get(key);
+        if (entries == null) {
+            return null;
+        }
+        Position<S> lower = new Position<>(fromExclusive, null, 1);
+        Position<S> upper = new Position<>(toExclusive, null, -1);
+        if (lower.compareTo(upper) >= 0) {
+            return null;
+        }
+        NavigableMap<Position<S>, T> range = entries.subMap(lower, true, upper, true);
+        return range.isEmpty() ? null : range.lastKey().sortValue;
+    }
+
+    /**
+     * Get number of entities with a key
+     *
+     * @param key Indexed key
+     * @return Entity count
+     */
+    public int count(String key) {
+        NavigableMap<Position<S>, T> entries = byKey.get(key);
+        return entries == null ? 0 : entries.size();
+    }
+}
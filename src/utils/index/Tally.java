@@ -0,0 +1,157 @@
+package utils.index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Running count and sum of entities per key (e.g. rooms per status, revenue
+ * per payment day), updated on each change instead of recomputed by a scan.
+ *
+ * As with {@link SecondaryIndex}, the key and value an entity was counted
+ * under are remembered per primary key, so an entity changed in place is
+ * moved from its old bucket to its new one when it is put again.
+ *
+ * @param <T> Entity type
+ * @param <K> Key type
+ */
+public class Tally<T, K> {
+
+    /**
+     * Running totals of one key
+     */
+    private static final class Bucket {
+        private int count;
+        private double sum;
+    }
+
+    /**
+     * What an entity currently contributes
+     */
+    private static final class Counted<K> {
+        private final K key;
+        private final double value;
+
+        Counted(K key, double value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final Function<T, String> idFunction;
+    private final Function<T, K> keyFunction;
+    private final ToDoubleFunction<T> valueFunction;
+
+    private final Map<K, Bucket> buckets = new HashMap<>();
+    private final Map<String, Counted<K>> counted = new HashMap<>();
+
+    /**
+     * Create a tally that only counts
+     *
+     * @param idFunction  Extracts the primary key
+     * @param keyFunction Extracts the key; entities with a null key are not counted
+     */
+    public Tally(Function<T, String> idFunction, Function<T, K> keyFunction) {
+        this(idFunction, keyFunction, null);
+    }
+
+    /**
+     * Create a tally that counts and sums
+     *
+     * @param idFunction    Extracts the primary key
+     * @param keyFunction   Extracts the key; entities with a null key are not counted
+     * @param valueFunction Extracts the value summed per key
+     */
+    public Tally(Function<T, String> idFunction, Function<T, K> keyFunction,
+            ToDoubleFunction<T> valueFunction) {
+        this.idFunction = idFunction;
+        this.keyFunction = keyFunction;
+        this.valueFunction = valueFunction;
+    }
+
+    /**
+     * Count a new entity or recount a changed one
+     *
+     * @param entity Entity in its current state
+     */
+    public void put(T entity) {
+        String id = idFunction.apply(entity);
+        remove(id);
+        K key = keyFunction.apply(entity);
+        if (key == null) {
+            return;
+        }
+        double value = valueFunction == null ? 0 : valueFunction.applyAsDouble(entity);
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        bucket.count++;
+        bucket.sum += value;
+        counted.put(id, new Counted<>(key, value));
+    }
+
+    /**
+     * Stop counting an entity
+     *
+     * @param id Primary key of the entity
+     */
+    public void remove(String id) {
+        Counted<K> previous = counted.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Bucket bucket = buckets.get(previous.key);
+        if (--bucket.count == 0) {
+            // Dropping empty buckets also discards accumulated rounding error
+            buckets.remove(previous.key);
+        } else {
+            bucket.sum -= previous.value;
+        }
+    }
+
+    /**
+     * Replace the tally contents
+     *
+     * @param entities All entities
+     */
+    public void rebuild(Collection<T> entities) {
+        buckets.clear();
+        counted.clear();
+        for (T entity : entities) {
+            put(entity);
+        }
+    }
+
+    /**
+     * Get number of entities with a key
+     *
+     * @param key Key
+     * @return Entity count
+     */
+    public int count(K key) {
+        Bucket bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.count;
+    }
+
+    /**
+     * Get the summed value of entities with a key
+     *
+     * @param key Key
+     * @return Sum, 0 if there are none
+     */
+    public double sum(K key) {
+        Bucket bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.sum;
+    }
+
+    /**
+     * Get the keys with at least one entity
+     *
+     * @return Read-only view of the keys
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(buckets.keySet());
+    }
+}
@@ -0,0 +1,307 @@
+package utils.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Case-insensitive substring search over one text field of an entity (e.g. a
+ * name), backed by an inverted index of three-character sequences.
+ *
+ * Each entity gets a slot number in insertion order. Every trigram maps to
+ * the sorted slot numbers of the texts containing it, so a query is answered
+ * by intersecting the posting lists of its trigrams and checking the few
+ * candidates left against the stored lower-case text. Queries shorter than
+ * three characters fall back to scanning the stored texts. Results come back
+ * in insertion order, like a scan of the manager's map would return them, or
+ * ranked by how the text matches for search-as-you-type.
+ *
+ * @param <T> Entity type
+ */
+public class TrigramIndex<T> {
+
+    /**
+     * Sorted, growable list of slot numbers
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            int at = size == 0 || slots[size - 1] < slot ? size : Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0 && at < size) {
+                return;
+            }
+            if (at < 0) {
+                at = -at - 1;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) {
+                System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Find the first position at or after from holding a slot >= target,
+         * galloping forward before the binary search
+         */
+        int seek(int from, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && slots[high] < target) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            if (high > size) {
+                high = size;
+            }
+            int at = Arrays.binarySearch(slots, low, high, target);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    private final Function<T, String> idFunction;
+    private final Function<T, String> textFunction;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    // Per slot: the entity and its lower-case text as indexed; null once removed
+    private Object[] entities = new Object[16];
+    private String[] texts = new String[16];
+    private int nextSlot;
+
+    /**
+     * Create an index
+     *
+     * @param idFunction   Extracts the primary key
+     * @param textFunction Extracts the searchable text; null is not indexed
+     */
+    public TrigramIndex(Function<T, String> idFunction, Function<T, String> textFunction) {
+        this.idFunction = idFunction;
+        this.textFunction = textFunction;
+    }
+
+    /**
+     * Index a new entity or re-index a changed one; a changed entity keeps its
+     * position in the result order
+     *
+     * @param entity Entity in its current state
+     */
+    public void put(T entity) {
+        String id = idFunction.apply(entity);
+        String raw = textFunction.apply(entity);
+        String text = raw == null ? "" : raw.toLowerCase(Locale.ROOT);
+        Integer existing = slotById.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            if (text.equals(texts[slot])) {
+                entities[slot] = entity;
+                return;
+            }
+            unindex(slot, texts[slot]);
+        } else {
+            slot = nextSlot++;
+            if (slot == entities.length) {
+                entities = Arrays.copyOf(entities, slot * 2);
+                texts = Arrays.copyOf(texts, slot * 2);
+            }
+            slotById.put(id, slot);
+        }
+        entities[slot] = entity;
+        texts[slot] = text;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new Postings()).add(slot);
+        }
+    }
+
+    /**
+     * Remove an entity from the index
+     *
+     * @param id Primary key of the entity
+     */
+    public void remove(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot, texts[slot]);
+        entities[slot] = null;
+        texts[slot] = null;
+    }
+
+    /**
+     * Replace the index contents
+     *
+     * @param all All entities
+     */
+    public void rebuild(Collection<T> all) {
+        postings.clear();
+        slotById.clear();
+        entities = new Object[Math.max(16, all.size())];
+        texts = new String[entities.length];
+        nextSlot = 0;
+        for (T entity : all) {
+            put(entity);
+        }
+    }
+
+    /**
+     * Find entities whose text contains a query, ignoring case
+     *
+     * @param query Text to look for
+     * @param limit Maximum number of results
+     * @return Matching entities in insertion order
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> search(String query, int limit) {
+        List<T> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        match(query.toLowerCase(Locale.ROOT), slot -> {
+            result.add((T) entities[slot]);
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    /**
+     * Find the best matches for a query, ignoring case. Texts that start with
+     * the query come first, then texts with a word starting with it, then the
+     * rest; each group keeps insertion order. The search stops as soon as
+     * enough texts start with the query, since nothing can outrank them.
+     *
+     * @param query Text to look for
+     * @param limit Maximum number of results
+     * @return Matching entities, most relevant first
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> searchByRelevance(String query, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<List<T>> ranks = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        match(needle, slot -> {
+            List<T> rank = ranks.get(rank(texts[slot], needle));
+            if (rank.size() < limit) {
+                rank.add((T) entities[slot]);
+            }
+            return ranks.get(0).size() < limit;
+        });
+
+        List<T> result = new ArrayList<>();
+        for (List<T> rank : ranks) {
+            for (int i = 0; i < rank.size() && result.size() < limit; i++) {
+                result.add(rank.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get how well a text matches: 0 if it starts with the needle, 1 if one of
+     * its words does, 2 otherwise
+     */
+    private static int rank(String text, String needle) {
+        if (text.startsWith(needle)) {
+            return 0;
+        }
+        for (int at = text.indexOf(needle, 1); at > 0; at = text.indexOf(needle, at + 1)) {
+            if (!Character.isLetterOrDigit(text.charAt(at - 1))) {
+                return 1;
+            }
+        }
+        return 2;
+    }
+
+    /**
+     * Visit the slots of the texts containing a lower-case needle, in order,
+     * until the visitor returns false
+     */
+    private void match(String needle, IntPredicate visitor) {
+        if (needle.length() < 3) {
+            for (int slot = 0; slot < nextSlot; slot++) {
+                if (texts[slot] != null && texts[slot].contains(needle) && !visitor.test(slot)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        // Leapfrog intersection: cycle through the lists, moving each cursor
+        // up to the current target, until all of them agree on a slot
+        int count = needle.length() - 2;
+        Postings[] lists = new Postings[count];
+        for (int i = 0; i < count; i++) {
+            Postings list = postings.get(trigram(needle, i));
+            if (list == null) {
+                return;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] cursors = new int[count];
+        int target = lists[0].slots[0];
+        int agreed = 0;
+        int list = 0;
+        while (true) {
+            Postings current = lists[list];
+            int at = current.seek(cursors[list], target);
+            if (at == current.size) {
+                return;
+            }
+            cursors[list] = at;
+            int slot = current.slots[at];
+            if (slot != target) {
+                // Overshot: every other list has to catch up with the new target
+                target = slot;
+                agreed = 0;
+            }
+            if (++agreed == count) {
+                if (texts[target].contains(needle) && !visitor.test(target)) {
+                    return;
+                }
+                target++;
+                agreed = 0;
+            }
+            list = (list + 1) % count;
+        }
+    }
+
+    private void unindex(int slot, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            Long key = trigram(text, i);
+            Postings list = postings.get(key);
+            if (list != null) {
+                list.remove(slot);
+                if (list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+}
@@ -0,0 +1,192 @@
+package utils.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact encodings for the field types used by the model classes.
+ * Strings, lists and small integers use variable-length lengths so that
+ * typical records need one length byte per field.
+ */
+public final class BinaryIO {
+
+    private BinaryIO() {
+    }
+
+    // ==================== INTEGERS ====================
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // ==================== STRINGS ====================
+
+    /**
+     * Write a nullable string as (UTF-8 length + 1) followed by the bytes
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeStringList(DataOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, values.size() + 1);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    public static List<String> readStringList(DataInput in) throws IOException {
+        int size = readVarInt(in) - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    // ==================== DATES ====================
+
+    public static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeInt((int) date.toEpochDay());
+        }
+    }
+
+    public static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+    }
+
+    /**
+     * Write a nullable date-time; nanoseconds are only stored when non-zero
+     */
+    public static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            out.writeByte(0);
+            return;
+        }
+        int nano = dateTime.getNano();
+        out.writeByte(nano == 0 ? 1 : 2);
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        if (nano != 0) {
+            out.writeInt(nano);
+        }
+    }
+
+    public static LocalDateTime readDateTime(DataInput in) throws IOException {
+        int flag = in.readByte();
+        if (flag == 0) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nano = flag == 2 ? in.readInt() : 0;
+        return LocalDateTime.ofEpochSecond(seconds, nano, ZoneOffset.UTC);
+    }
+
+    // ==================== ENUMS ====================
+
+    public static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    public static <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+        int ordinal = in.readByte();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    // ==================== FIXED-WIDTH FIELDS ====================
+
+    /** Bytes taken by {@link #putDateTime} */
+    public static final int DATE_TIME_WIDTH = 13;
+
+    /**
+     * Check whether a string fits a fixed-width field of the given size
+     */
+    public static boolean fitsFixed(String value, int width) {
+        return value == null || value.getBytes(StandardCharsets.UTF_8).length < width;
+    }
+
+    /**
+     * Write a nullable string into a fixed-width field as (length + 1) and the
+     * UTF-8 bytes; the value must satisfy {@link #fitsFixed}
+     */
+    public static void putFixedString(ByteBuffer buffer, int offset, int width, String value) {
+        if (value == null) {
+            buffer.put(offset, (byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.put(offset, (byte) (bytes.length + 1));
+        buffer.put(offset + 1, bytes);
+    }
+
+    public static String getFixedString(ByteBuffer buffer, int offset) {
+        int length = (buffer.get(offset) & 0xFF) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void putDateTime(ByteBuffer buffer, int offset, LocalDateTime dateTime) {
+        buffer.put(offset, (byte) (dateTime == null ? 0 : 1));
+        buffer.putLong(offset + 1, dateTime == null ? 0 : dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(offset + 9, dateTime == null ? 0 : dateTime.getNano());
+    }
+
+    public static LocalDateTime getDateTime(ByteBuffer buffer, int offset) {
+        if (buffer.get(offset) == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(buffer.getLong(offset + 1), buffer.getInt(offset + 9), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,425 @@
+package utils.storage;
+
+import models.*;
+import models.Appointment.AppointmentStatus;
+import models.Bill.BillItem;
+import models.Bill.BillStatus;
+import models.Room.RoomStatus;
+import models.Room.RoomType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static utils.storage.BinaryIO.*;
+
+/**
+ * Binary codecs for every persisted model class.
+ *
+ * Fields are written in declaration order. Entities are rebuilt through the
+ * default constructor and setters; where a setter recalculates a derived
+ * field (Bill totals, BillItem amount, Room price) the stored value is set
+ * last so that the decoded entity is identical to the encoded one.
+ */
+public final class Codecs {
+
+    private static final AppointmentStatus[] APPOINTMENT_STATUSES = AppointmentStatus.values();
+    private static final BillStatus[] BILL_STATUSES = BillStatus.values();
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+    private static final RoomStatus[] ROOM_STATUSES = RoomStatus.values();
+
+    private Codecs() {
+    }
+
+    // ==================== PERSON ====================
+
+    private static void writePerson(DataOutput out, Person person) throws IOException {
+        writeString(out, person.getId());
+        writeString(out, person.getName());
+        writeDate(out, person.getDateOfBirth());
+        writeString(out, person.getGender());
+        writeString(out, person.getPhone());
+        writeString(out, person.getEmail());
+        writeString(out, person.getAddress());
+    }
+
+    private static void readPerson(DataInput in, Person person) throws IOException {
+        person.setId(readString(in));
+        person.setName(readString(in));
+        person.setDateOfBirth(readDate(in));
+        person.setGender(readString(in));
+        person.setPhone(readString(in));
+        person.setEmail(readString(in));
+        person.setAddress(readString(in));
+    }
+
+    public static final EntityCodec<Patient> PATIENT = new EntityCodec<Patient>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Patient patient) throws IOException {
+            writePerson(out, patient);
+            writeString(out, patient.getPatientId());
+            writeString(out, patient.getBloodGroup());
+            writeDate(out, patient.getAdmissionDate());
+            writeStringList(out, patient.getMedicalHistory());
+            writeString(out, patient.getAssignedDoctorId());
+            writeString(out, patient.getRoomNumber());
+            out.writeBoolean(patient.isAdmitted());
+            writeString(out, patient.getEmergencyContact());
+            writeString(out, patient.getEmergencyContactPhone());
+        }
+
+        @Override
+        public Patient read(DataInput in, int version) throws IOException {
+            Patient patient = new Patient();
+            readPerson(in, patient);
+            patient.setPatientId(readString(in));
+            patient.setBloodGroup(readString(in));
+            patient.setAdmissionDate(readDate(in));
+            patient.setMedicalHistory(readStringList(in));
+            patient.setAssignedDoctorId(readString(in));
+            patient.setRoomNumber(readString(in));
+            patient.setAdmitted(in.readBoolean());
+            patient.setEmergencyContact(readString(in));
+            patient.setEmergencyContactPhone(readString(in));
+            return patient;
+        }
+    };
+
+    public static final EntityCodec<Doctor> DOCTOR = new EntityCodec<Doctor>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Doctor doctor) throws IOException {
+            writePerson(out, doctor);
+            writeString(out, doctor.getDoctorId());
+            writeString(out, doctor.getSpecialization());
+            writeString(out, doctor.getDepartment());
+            writeString(out, doctor.getQualification());
+            out.writeDouble(doctor.getConsultationFee());
+            writeStringList(out, doctor.getAvailableDays());
+            writeString(out, doctor.getWorkingHours());
+            writeVarInt(out, doctor.getExperienceYears());
+            writeStringList(out, doctor.getPatientIds());
+        }
+
+        @Override
+        public Doctor read(DataInput in, int version) throws IOException {
+            Doctor doctor = new Doctor();
+            readPerson(in, doctor);
+            doctor.setDoctorId(readString(in));
+            doctor.setSpecialization(readString(in));
+            doctor.setDepartment(readString(in));
+            doctor.setQualification(readString(in));
+            doctor.setConsultationFee(in.readDouble());
+            doctor.setAvailableDays(readStringList(in));
+            doctor.setWorkingHours(readString(in));
+            doctor.setExperienceYears(readVarInt(in));
+            doctor.setPatientIds(readStringList(in));
+            return doctor;
+        }
+    };
+
+    public static final EntityCodec<Staff> STAFF = new EntityCodec<Staff>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Staff staff) throws IOException {
+            writePerson(out, staff);
+            writeString(out, staff.getStaffId());
+            writeString(out, staff.getStaffRole());
+            writeString(out, staff.getDepartment());
+            writeString(out, staff.getShift());
+            out.writeDouble(staff.getSalary());
+            writeDate(out, staff.getJoiningDate());
+        }
+
+        @Override
+        public Staff read(DataInput in, int version) throws IOException {
+            Staff staff = new Staff();
+            readPerson(in, staff);
+            staff.setStaffId(readString(in));
+            staff.setStaffRole(readString(in));
+            staff.setDepartment(readString(in));
+            staff.setShift(readString(in));
+            staff.setSalary(in.readDouble());
+            staff.setJoiningDate(readDate(in));
+            return staff;
+        }
+    };
+
+    // ==================== APPOINTMENTS ====================
+
+    public static final EntityCodec<Appointment> APPOINTMENT = new EntityCodec<Appointment>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Appointment appointment) throws IOException {
+            writeString(out, appointment.getAppointmentId());
+            writeString(out, appointment.getPatientId());
+            writeString(out, appointment.getPatientName());
+            writeString(out, appointment.getDoctorId());
+            writeString(out, appointment.getDoctorName());
+            writeDateTime(out, appointment.getDateTime());
+            writeEnum(out, appointment.getStatus());
+            writeString(out, appointment.getNotes());
+            writeString(out, appointment.getPurpose());
+            writeDateTime(out, appointment.getCreatedAt());
+        }
+
+        @Override
+        public Appointment read(DataInput in, int version) throws IOException {
+            Appointment appointment = new Appointment();
+            appointment.setAppointmentId(readString(in));
+            appointment.setPatientId(readString(in));
+            appointment.setPatientName(readString(in));
+            appointment.setDoctorId(readString(in));
+            appointment.setDoctorName(readString(in));
+            appointment.setDateTime(readDateTime(in));
+            appointment.setStatus(readEnum(in, APPOINTMENT_STATUSES));
+            appointment.setNotes(readString(in));
+            appointment.setPurpose(readString(in));
+            appointment.setCreatedAt(readDateTime(in));
+            return appointment;
+        }
+    };
+
+    // ==================== BILLS ====================
+
+    private static void writeBillItem(DataOutput out, BillItem item) throws IOException {
+        writeString(out, item.getDescription());
+        writeString(out, item.getCategory());
+        writeVarInt(out, item.getQuantity());
+        out.writeDouble(item.getUnitPrice());
+        out.writeDouble(item.getAmount());
+    }
+
+    private static BillItem readBillItem(DataInput in) throws IOException {
+        BillItem item = new BillItem();
+        item.setDescription(readString(in));
+        item.setCategory(readString(in));
+        item.setQuantity(readVarInt(in));
+        item.setUnitPrice(in.readDouble());
+        item.setAmount(in.readDouble());
+        return item;
+    }
+
+    public static final EntityCodec<Bill> BILL = new EntityCodec<Bill>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Bill bill) throws IOException {
+            writeString(out, bill.getBillId());
+            writeString(out, bill.getPatientId());
+            writeString(out, bill.getPatientName());
+            List<BillItem> items = bill.getItems();
+            writeVarInt(out, items == null ? 0 : items.size() + 1);
+            if (items != null) {
+                for (BillItem item : items) {
+                    writeBillItem(out, item);
+                }
+            }
+            out.writeDouble(bill.getTotalAmount());
+            out.writeDouble(bill.getPaidAmount());
+            out.writeDouble(bill.getDiscount());
+            writeEnum(out, bill.getStatus());
+            writeDateTime(out, bill.getDateGenerated());
+            writeDateTime(out, bill.getDatePaid());
+            writeString(out, bill.getPaymentMethod());
+        }
+
+        @Override
+        public Bill read(DataInput in, int version) throws IOException {
+            Bill bill = new Bill();
+            bill.setBillId(readString(in));
+            bill.setPatientId(readString(in));
+            bill.setPatientName(readString(in));
+            int itemCount = readVarInt(in) - 1;
+            if (itemCount >= 0) {
+                List<BillItem> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++) {
+                    items.add(readBillItem(in));
+                }
+                bill.setItems(items);
+            } else {
+                bill.setItems(null);
+            }
+            double totalAmount = in.readDouble();
+            bill.setPaidAmount(in.readDouble());
+            bill.setDiscount(in.readDouble());
+            bill.setTotalAmount(totalAmount);
+            bill.setStatus(readEnum(in, BILL_STATUSES));
+            bill.setDateGenerated(readDateTime(in));
+            bill.setDatePaid(readDateTime(in));
+            bill.setPaymentMethod(readString(in));
+            return bill;
+        }
+    };
+
+    // ==================== ROOMS ====================
+
+    public static final EntityCodec<Room> ROOM = new EntityCodec<Room>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Room room) throws IOException {
+            writeString(out, room.getRoomNumber());
+            writeEnum(out, room.getType());
+            writeEnum(out, room.getStatus());
+            out.writeDouble(room.getPricePerDay());
+            writeString(out, room.getCurrentPatientId());
+            writeString(out, room.getCurrentPatientName());
+            writeVarInt(out, room.getFloor());
+            writeVarInt(out, room.getBedCount());
+            writeString(out, room.getFeatures());
+        }
+
+        @Override
+        public Room read(DataInput in, int version) throws IOException {
+            Room room = new Room();
+            room.setRoomNumber(readString(in));
+            RoomType type = readEnum(in, ROOM_TYPES);
+            if (type != null) {
+                room.setType(type);
+            }
+            room.setStatus(readEnum(in, ROOM_STATUSES));
+            room.setPricePerDay(in.readDouble());
+            room.setCurrentPatientId(readString(in));
+            room.setCurrentPatientName(readString(in));
+            room.setFloor(readVarInt(in));
+            room.setBedCount(readVarInt(in));
+            room.setFeatures(readString(in));
+            return room;
+        }
+    };
+
+    // ==================== MEDICAL RECORDS ====================
+
+    public static final EntityCodec<MedicalRecord> MEDICAL_RECORD = new EntityCodec<MedicalRecord>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, MedicalRecord record) throws IOException {
+            writeString(out, record.getRecordId());
+            writeString(out, record.getPatientId());
+            writeString(out, record.getPatientName());
+            writeString(out, record.getDoctorId());
+            writeString(out, record.getDoctorName());
+            writeString(out, record.getDiagnosis());
+            writeString(out, record.getSymptoms());
+            writeStringList(out, record.getPrescriptions());
+            writeString(out, record.getNotes());
+            writeDateTime(out, record.getDate());
+            writeString(out, record.getFollowUpInstructions());
+            writeStringList(out, record.getTestResults());
+        }
+
+        @Override
+        public MedicalRecord read(DataInput in, int version) throws IOException {
+            MedicalRecord record = new MedicalRecord();
+            record.setRecordId(readString(in));
+            record.setPatientId(readString(in));
+            record.setPatientName(readString(in));
+            record.setDoctorId(readString(in));
+            record.setDoctorName(readString(in));
+            record.setDiagnosis(readString(in));
+            record.setSymptoms(readString(in));
+            record.setPrescriptions(readStringList(in));
+            record.setNotes(readString(in));
+            record.setDate(readDateTime(in));
+            record.setFollowUpInstructions(readString(in));
+            record.setTestResults(readStringList(in));
+            return record;
+        }
+    };
+
+    // ==================== DEPARTMENTS ====================
+
+    public static final EntityCodec<Department> DEPARTMENT = new EntityCodec<Department>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, Department department) throws IOException {
+            writeString(out, department.getDepartmentId());
+            writeString(out, department.getName());
+            writeString(out, department.getHeadDoctorId());
+            writeString(out, department.getHeadDoctorName());
+            writeString(out, department.getDescription());
+            writeString(out, department.getLocation());
+            writeStringList(out, department.getDoctorIds());
+            writeString(out, department.getPhoneExtension());
+        }
+
+        @Override
+        public Department read(DataInput in, int version) throws IOException {
+            Department department = new Department();
+            department.setDepartmentId(readString(in));
+            department.setName(readString(in));
+            department.setHeadDoctorId(readString(in));
+            department.setHeadDoctorName(readString(in));
+            department.setDescription(readString(in));
+            department.setLocation(readString(in));
+            department.setDoctorIds(readStringList(in));
+            department.setPhoneExtension(readString(in));
+            return department;
+        }
+    };
+
+    // ==================== USERS ====================
+
+    public static final EntityCodec<User> USER = new EntityCodec<User>() {
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, User user) throws IOException {
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeString(out, user.getRole());
+            writeString(out, user.getDisplayName());
+            writeString(out, user.getLinkedId());
+            out.writeBoolean(user.isActive());
+        }
+
+        @Override
+        public User read(DataInput in, int version) throws IOException {
+            User user = new User();
+            user.setUsername(readString(in));
+            user.setPassword(readString(in));
+            user.setRole(readString(in));
+            user.setDisplayName(readString(in));
+            user.setLinkedId(readString(in));
+            user.setActive(in.readBoolean());
+            return user;
+        }
+    };
+}
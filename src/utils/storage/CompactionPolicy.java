@@ -0,0 +1,70 @@
+package utils.storage;
+
+/**
+ * Thresholds that decide when a journal is folded into a fresh snapshot.
+ * A journal is compacted as soon as any one threshold is reached, which keeps
+ * the amount of journal replayed at startup bounded.
+ */
+public class CompactionPolicy {
+
+    /** 8 MB, 50,000 entries or 15 minutes, whichever comes first */
+    public static final CompactionPolicy DEFAULT = new CompactionPolicy(8L * 1024 * 1024, 50_000, 15 * 60 * 1000L);
+
+    private final long maxJournalBytes;
+    private final long maxJournalEntries;
+    private final long maxAgeMillis;
+
+    /**
+     * Create a compaction policy
+     *
+     * @param maxJournalBytes   Journal size that triggers compaction
+     * @param maxJournalEntries Journal entry count that triggers compaction
+     * @param maxAgeMillis      Time since the last compaction that triggers compaction
+     */
+    public CompactionPolicy(long maxJournalBytes, long maxJournalEntries, long maxAgeMillis) {
+        if (maxJournalBytes <= 0 || maxJournalEntries <= 0 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Compaction thresholds must be positive");
+        }
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalEntries = maxJournalEntries;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Check whether a journal should be compacted
+     *
+     * @param journalBytes   Current journal size
+     * @param journalEntries Current journal entry count
+     * @param ageMillis      Time since the last compaction
+     * @return true if compaction is due
+     */
+    public boolean isDue(long journalBytes, long journalEntries, long ageMillis) {
+        if (journalEntries == 0) {
+            return false;
+        }
+        return journalBytes >= maxJournalBytes
+                || journalEntries >= maxJournalEntries
+                || ageMillis >= maxAgeMillis;
+    }
+
+    public long getMaxJournalBytes() {
+        return maxJournalBytes;
+    }
+
+    public long getMaxJournalEntries() {
+        return maxJournalEntries;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactionPolicy{" +
+                "maxJournalBytes=" + maxJournalBytes +
+                ", maxJournalEntries=" + maxJournalEntries +
+                ", maxAgeMillis=" + maxAgeMillis +
+                '}';
+    }
+}
@@ -0,0 +1,39 @@
+package utils.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Hand-written binary encoding for one model class.
+ * The version is stored alongside the data so that a codec can keep reading
+ * records written by older versions after the model changes.
+ *
+ * @param <T> Model type
+ */
+public interface EntityCodec<T> {
+
+    /**
+     * Current format version written by this codec
+     *
+     * @return Version number (1-127)
+     */
+    int version();
+
+    /**
+     * Encode an entity
+     *
+     * @param out   Output
+     * @param value Entity to write
+     */
+    void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Decode an entity
+     *
+     * @param in      Input
+     * @param version Format version the entity was written with
+     * @return Decoded entity
+     */
+    T read(DataInput in, int version) throws IOException;
+}
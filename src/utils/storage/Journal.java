@@ -0,0 +1,419 @@
+package utils.storage;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of entity mutations.
+ *
+ * Every add/update/delete is written as one self-contained entry, so persisting
+ * a change costs O(record) I/O instead of rewriting the whole data file. At
+ * startup the journal is replayed on top of the last snapshot.
+ *
+ * Entry layout: [int length][int crc32][byte op][UTF key][byte version][record]
+ * The record is encoded with the journal's {@link EntityCodec}, and the op
+ * byte carries a codec flag. Entries are never decoded with Java
+ * serialization, so an entry without the flag is treated as corrupt.
+ * A torn or corrupt entry at the tail (e.g. after a crash) ends the replay and
+ * is cut off so that later appends start from a clean position.
+ *
+ * When a snapshot is taken the journal is rotated: the current file becomes
+ * the ".old" file and new entries go to a fresh file. The ".old" file is only
+ * deleted after the new snapshot is safely in place, and it is replayed before
+ * the current file, so a crash at any point never loses entries. Replaying an
+ * entry that is already in the snapshot is harmless because entries carry the
+ * full entity state.
+ *
+ * With a {@link WriteBehindQueue}, entries are encoded on the calling thread
+ * and written and synced in batches by the queue's writer thread. Rotation
+ * and replay wait for queued entries first, so they always see every entry
+ * appended before them.
+ *
+ * @param <T> Entity type stored in the journal
+ */
+public class Journal<T> {
+
+    /**
+     * Journal operation types
+     */
+    public enum Op {
+        ADD, UPDATE, DELETE
+    }
+
+    /** Marks entries encoded with the codec; entries without it are corrupt */
+    private static final int CODEC_FLAG = 0x40;
+    private static final Op[] OPS = Op.values();
+
+    private final File file;
+    private final File rotatedFile;
+    private final Function<T, String> keyFunction;
+    private final EntityCodec<T> codec;
+    private final WriteBehindQueue queue;
+    private final WriteBehindQueue.Target target = new WriteBehindQueue.Target() {
+        @Override
+        public void write(List<byte[]> entries) throws IOException {
+            writeEntries(entries);
+        }
+
+        @Override
+        public void sync() throws IOException {
+            syncStream();
+        }
+    };
+    private FileOutputStream fileStream;
+    private DataOutputStream out;
+
+    private long entryCount;
+    private long lastRotationMillis;
+    private Runnable appendListener;
+
+    /**
+     * Create a journal
+     *
+     * @param filename    Journal file path
+     * @param keyFunction Extracts the primary key of an entity
+     * @param codec       Encoding used for entity payloads
+     */
+    public Journal(String filename, Function<T, String> keyFunction, EntityCodec<T> codec) {
+        this(filename, keyFunction, codec, null);
+    }
+
+    /**
+     * Create a journal that writes through a write-behind queue
+     *
+     * @param filename    Journal file path
+     * @param keyFunction Extracts the primary key of an entity
+     * @param codec       Encoding used for entity payloads
+     * @param queue       Queue batching the writes, or null to write synchronously
+     */
+    public Journal(String filename, Function<T, String> keyFunction, EntityCodec<T> codec,
+            WriteBehindQueue queue) {
+        this.file = new File(filename);
+        this.rotatedFile = new File(filename + ".old");
+        this.keyFunction = keyFunction;
+        this.codec = codec;
+        this.queue = queue;
+        this.lastRotationMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Append an add or update entry
+     *
+     * @param op     ADD or UPDATE
+     * @param entity Entity in its new state
+     * @return Future completed once the entry is on disk
+     */
+    public CompletableFuture<Void> append(Op op, T entity) {
+        String key = keyFunction.apply(entity);
+        CompletableFuture<Void> future = write(key, encode(op, key, entity));
+        notifyAppend();
+        return future;
+    }
+
+    /**
+     * Append a delete entry
+     *
+     * @param key Primary key of the deleted entity
+     * @return Future completed once the entry is on disk
+     */
+    public CompletableFuture<Void> appendDelete(String key) {
+        CompletableFuture<Void> future = write(key, encode(Op.DELETE, key, null));
+        notifyAppend();
+        return future;
+    }
+
+    /**
+     * Replay the journal on top of a snapshot.
+     * Existing entities keep their position; added entities are appended.
+     *
+     * @param snapshot Entities loaded from the last snapshot
+     * @return Snapshot with all journaled mutations applied
+     */
+    public List<T> replay(List<T> snapshot) {
+        awaitPending();
+        synchronized (this) {
+            return replayFiles(snapshot);
+        }
+    }
+
+    private List<T> replayFiles(List<T> snapshot) {
+        closeStream();
+        entryCount = 0;
+        if (rotatedFile.length() == 0 && file.length() == 0) {
+            return snapshot;
+        }
+        Map<String, T> state = new LinkedHashMap<>();
+        for (T entity : snapshot) {
+            state.put(keyFunction.apply(entity), entity);
+        }
+        entryCount += replayFile(rotatedFile, state);
+        entryCount += replayFile(file, state);
+        return new ArrayList<>(state.values());
+    }
+
+    /**
+     * Move the current entries aside before a snapshot is written.
+     * If an earlier rotation was never discarded (failed snapshot), the
+     * current entries are appended to it so nothing is lost.
+     */
+    public void rotate() {
+        awaitPending();
+        synchronized (this) {
+            rotateFiles();
+        }
+    }
+
+    private void rotateFiles() {
+        closeStream();
+        try {
+            if (file.length() > 0) {
+                if (rotatedFile.exists()) {
+                    try (InputStream in = new FileInputStream(file);
+                            OutputStream os = new FileOutputStream(rotatedFile, true)) {
+                        in.transferTo(os);
+                    }
+                    file.delete();
+                } else if (!file.renameTo(rotatedFile)) {
+                    throw new IOException("Could not rename " + file + " to " + rotatedFile);
+                }
+            }
+            entryCount = 0;
+            lastRotationMillis = System.currentTimeMillis();
+        } catch (IOException e) {
+            System.err.println("Error rotating " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the rotated entries once a snapshot containing them is in place
+     */
+    public synchronized void discardRotated() {
+        rotatedFile.delete();
+    }
+
+    /**
+     * Delete the journal files
+     */
+    public void delete() {
+        awaitPending();
+        synchronized (this) {
+            closeStream();
+            file.delete();
+            rotatedFile.delete();
+            entryCount = 0;
+        }
+    }
+
+    /**
+     * Get journal size on disk, including rotated entries
+     *
+     * @return Size in bytes
+     */
+    public long length() {
+        return file.length() + rotatedFile.length();
+    }
+
+    /**
+     * Get number of entries written since the last rotation
+     *
+     * @return Entry count
+     */
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Get time elapsed since the last rotation
+     *
+     * @return Age in milliseconds
+     */
+    public synchronized long getAgeMillis() {
+        return System.currentTimeMillis() - lastRotationMillis;
+    }
+
+    /**
+     * Set a callback run after every append, outside the journal lock
+     *
+     * @param appendListener Callback to run
+     */
+    public void setAppendListener(Runnable appendListener) {
+        this.appendListener = appendListener;
+    }
+
+    private void notifyAppend() {
+        Runnable listener = appendListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private int replayFile(File source, Map<String, T> state) {
+        if (!source.exists() || source.length() == 0) {
+            return 0;
+        }
+        int entries = 0;
+        long validLength = 0;
+        long total = source.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+            while (validLength + 8 <= total) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || validLength + 8 + length > total) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                if (crc(body) != checksum || !applyEntry(body, state)) {
+                    break;
+                }
+                validLength += 8 + length;
+                entries++;
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying " + source + ": " + e.getMessage());
+        }
+
+        if (validLength < total) {
+            System.err.println("Discarding torn tail of " + source + " at offset " + validLength);
+            try (RandomAccessFile raf = new RandomAccessFile(source, "rw")) {
+                raf.setLength(validLength);
+            } catch (IOException e) {
+                System.err.println("Error truncating " + source + ": " + e.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    private CompletableFuture<Void> write(String key, byte[] entry) {
+        if (entry == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (queue != null) {
+            return queue.submit(target, key, entry);
+        }
+        try {
+            writeEntries(List.of(entry));
+        } catch (IOException e) {
+            System.err.println("Error appending to " + file + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Encode an entry as [int length][int crc32][body]
+     */
+    private byte[] encode(Op op, String key, T entity) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream body = new DataOutputStream(buffer);
+            body.writeInt(0);
+            body.writeInt(0);
+            body.writeByte(op.ordinal() | CODEC_FLAG);
+            body.writeUTF(key);
+            if (entity != null) {
+                body.writeByte(codec.version());
+                codec.write(body, entity);
+            }
+            byte[] bytes = buffer.toByteArray();
+            int length = bytes.length - 8;
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 8, length);
+            putInt(bytes, 0, length);
+            putInt(bytes, 4, (int) crc.getValue());
+            return bytes;
+        } catch (IOException e) {
+            System.err.println("Error encoding entry for " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized void writeEntries(List<byte[]> entries) throws IOException {
+        DataOutputStream stream = openStream();
+        for (byte[] entry : entries) {
+            stream.write(entry);
+        }
+        stream.flush();
+        entryCount += entries.size();
+    }
+
+    private synchronized void syncStream() throws IOException {
+        if (fileStream != null) {
+            fileStream.getFD().sync();
+        }
+    }
+
+    private void awaitPending() {
+        if (queue != null) {
+            try {
+                queue.flush().join();
+            } catch (RuntimeException e) {
+                System.err.println("Error flushing " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Apply one entry to the replayed state
+     *
+     * @return false if the entry is not a codec entry and must be treated as corrupt
+     */
+    private boolean applyEntry(byte[] body, Map<String, T> state) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        int opByte = in.readUnsignedByte();
+        int ordinal = opByte & ~CODEC_FLAG;
+        if ((opByte & CODEC_FLAG) == 0 || ordinal >= OPS.length) {
+            return false;
+        }
+        String key = in.readUTF();
+        if (OPS[ordinal] == Op.DELETE) {
+            state.remove(key);
+        } else {
+            state.put(key, codec.read(in, in.readUnsignedByte()));
+        }
+        return true;
+    }
+
+    private DataOutputStream openStream() throws IOException {
+        if (out == null) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            fileStream = new FileOutputStream(file, true);
+            out = new DataOutputStream(new BufferedOutputStream(fileStream));
+        }
+        return out;
+    }
+
+    private void closeStream() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + file + ": " + e.getMessage());
+            }
+            out = null;
+            fileStream = null;
+        }
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,309 @@
+package utils.storage;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Folds journals into fresh snapshot files so that the journal replayed at
+ * startup stays bounded no matter how long the hospital has been running.
+ *
+ * After every append the journal is checked against the {@link CompactionPolicy}.
+ * The check is cheap; when compaction is due it is only scheduled, and all
+ * the work happens on the compactor's background thread, never on the thread
+ * that made the change. That thread rotates the journal first and only then
+ * takes the owning manager's entity list, so every rotated entry is already
+ * reflected in it. The list is encoded in chunks, holding the manager's read
+ * lock for one chunk at a time, so an edit waits for at most one chunk rather
+ * than for the whole encode. Entities changed while the encode is under way
+ * may be encoded in either state; their entries are in the new journal file,
+ * which is replayed on top of the snapshot and carries the full latest state.
+ * The snapshot is then written to a temporary file, forced to disk and
+ * atomically renamed over the old snapshot. Only then are the rotated journal
+ * entries deleted; loads through {@link #load} never fall between the two.
+ *
+ * The same thread also checks every journal once a minute, so a journal
+ * that stops receiving appends is still compacted once it reaches the age
+ * threshold.
+ */
+public class JournalCompactor {
+
+    /**
+     * Compaction state for one journal
+     */
+    private static class Registration<T> {
+        private final Journal<T> journal;
+        private final File snapshotFile;
+        private final EntityCodec<T> codec;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private volatile Supplier<List<T>> source;
+        private volatile Lock sourceLock;
+        private long generation;
+
+        Registration(Journal<T> journal, File snapshotFile, EntityCodec<T> codec) {
+            this.journal = journal;
+            this.snapshotFile = snapshotFile;
+            this.codec = codec;
+        }
+    }
+
+    private final Map<Journal<?>, Registration<?>> registrations = new ConcurrentHashMap<>();
+    // How often journals are checked without an append
+    private static final long CHECK_INTERVAL_SECONDS = 60;
+    // Entities encoded per hold of the manager's lock
+    private static final int ENCODE_CHUNK = 10_000;
+
+    private final ScheduledExecutorService executor;
+    private volatile CompactionPolicy policy = CompactionPolicy.DEFAULT;
+
+    /**
+     * Create a compactor with its own background thread
+     */
+    public JournalCompactor() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::compactAllDue,
+                CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Register a journal together with the snapshot file it compacts into
+     *
+     * @param journal      Journal to compact
+     * @param snapshotFile Snapshot file path
+     * @param codec        Codec of the snapshot records
+     */
+    public <T> void register(Journal<T> journal, String snapshotFile, EntityCodec<T> codec) {
+        Registration<T> registration = new Registration<>(journal, new File(snapshotFile), codec);
+        registrations.put(journal, registration);
+        journal.setAppendListener(() -> compactIfDue(registration));
+    }
+
+    /**
+     * Set the live entity list that compaction snapshots
+     *
+     * @param journal Registered journal
+     * @param source  Supplier of the owning manager's current list
+     * @param lock    Lock that keeps the manager's entities from changing while
+     *                it is held; typically its read lock
+     */
+    public <T> void setSource(Journal<T> journal, Supplier<List<T>> source, Lock lock) {
+        Registration<T> registration = registration(journal);
+        synchronized (registration) {
+            registration.sourceLock = lock;
+            registration.source = source;
+        }
+    }
+
+    /**
+     * Read the snapshot file and replay the journal on top of it. A
+     * compaction cannot replace the snapshot and drop the rotated entries
+     * in between, which would lose the entries the old snapshot lacks.
+     *
+     * @param journal  Registered journal
+     * @param snapshot Reads the current snapshot file
+     * @return Entities with all journaled mutations applied
+     */
+    public <T> List<T> load(Journal<T> journal, Supplier<List<T>> snapshot) {
+        Registration<T> registration = registration(journal);
+        synchronized (registration) {
+            return journal.replay(snapshot.get());
+        }
+    }
+
+    /**
+     * Schedule a compaction if the journal has reached the policy thresholds
+     *
+     * @param journal Registered journal
+     */
+    public <T> void compactIfDue(Journal<T> journal) {
+        compactIfDue(registration(journal));
+    }
+
+    /**
+     * Write a snapshot synchronously and clear the journal
+     *
+     * @param journal  Registered journal
+     * @param entities Complete entity list
+     */
+    public <T> void snapshotNow(Journal<T> journal, List<T> entities) {
+        Registration<T> registration = registration(journal);
+        synchronized (registration) {
+            byte[] snapshot = encode(registration, entities, null);
+            if (snapshot == null) {
+                return;
+            }
+            registration.generation++;
+            journal.rotate();
+            writeSnapshot(registration, snapshot);
+        }
+    }
+
+    /**
+     * Install a snapshot file written elsewhere (a streamed import) and
+     * delete the journal, whose entries describe the replaced data
+     *
+     * @param journal Registered journal
+     * @param file    Complete, synced snapshot file; moved over the current one
+     */
+    public <T> void replaceSnapshot(Journal<T> journal, File file) throws IOException {
+        Registration<T> registration = registration(journal);
+        synchronized (registration) {
+            registration.generation++;
+            journal.delete();
+            Files.move(file.toPath(), registration.snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    public CompactionPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(CompactionPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Schedule a compaction of every journal that has reached the policy
+     * thresholds, e.g. by age alone
+     */
+    private void compactAllDue() {
+        for (Registration<?> registration : registrations.values()) {
+            try {
+                compactIfDue(registration);
+            } catch (RuntimeException e) {
+                // A failing journal must not stop the periodic check for the others
+                System.err.println("Error checking " + registration.snapshotFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private <T> void compactIfDue(Registration<T> registration) {
+        Journal<T> journal = registration.journal;
+        if (registration.source == null
+                || !policy.isDue(journal.length(), journal.getEntryCount(), journal.getAgeMillis())) {
+            return;
+        }
+        if (registration.running.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    compact(registration);
+                } finally {
+                    registration.running.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rotate, encode and write a snapshot; runs on the compactor thread
+     */
+    private <T> void compact(Registration<T> registration) {
+        Journal<T> journal = registration.journal;
+        Supplier<List<T>> source;
+        Lock lock;
+        long generation;
+        synchronized (registration) {
+            if (!policy.isDue(journal.length(), journal.getEntryCount(), journal.getAgeMillis())) {
+                return;
+            }
+            source = registration.source;
+            lock = registration.sourceLock;
+            // Entries appended from here on go to the new file and are replayed on top
+            journal.rotate();
+            generation = ++registration.generation;
+        }
+
+        // Taken after the rotation, so it reflects every rotated entry
+        byte[] snapshot = encode(registration, source.get(), lock);
+        if (snapshot == null) {
+            // The rotated entries are kept and joined by the next rotation
+            return;
+        }
+
+        synchronized (registration) {
+            // A synchronous snapshot taken in the meantime already covers this one
+            if (registration.generation == generation) {
+                writeSnapshot(registration, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Encode entities as a snapshot file image
+     *
+     * @param registration Registration of the journal
+     * @param entities     Complete entity list
+     * @param lock         Lock held while each chunk is encoded; null if the
+     *                     entities cannot change meanwhile
+     * @return File contents, null if encoding failed
+     */
+    private <T> byte[] encode(Registration<T> registration, List<T> entities, Lock lock) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RecordFile.Writer<T> writer = new RecordFile.Writer<>(bytes, registration.codec)) {
+            for (int start = 0; start < entities.size(); start += ENCODE_CHUNK) {
+                List<T> chunk = entities.subList(start, Math.min(start + ENCODE_CHUNK, entities.size()));
+                if (lock != null) {
+                    lock.lock();
+                }
+                try {
+                    for (T entity : chunk) {
+                        writer.write(entity);
+                    }
+                } finally {
+                    if (lock != null) {
+                        lock.unlock();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error encoding snapshot " + registration.snapshotFile + ": " + e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeSnapshot(Registration<?> registration, byte[] snapshot) {
+        File target = registration.snapshotFile;
+        File temp = new File(target.getPath() + ".tmp");
+        try {
+            File parent = target.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(snapshot);
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            registration.journal.discardRotated();
+        } catch (IOException | RuntimeException e) {
+            // The rotated journal is kept, so the next load still sees every entry
+            System.err.println("Error compacting " + target + ": " + e.getMessage());
+            temp.delete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Registration<T> registration(Journal<T> journal) {
+        Registration<T> registration = (Registration<T>) registrations.get(journal);
+        if (registration == null) {
+            throw new IllegalArgumentException("Journal is not registered for compaction");
+        }
+        return registration;
+    }
+}
@@ -0,0 +1,306 @@
+package utils.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Memory-mapped file of fixed-width slots holding the frequently changed
+ * fields of each entity (e.g. appointment status, bill payment state).
+ *
+ * Every slot has the same size, so a slot is found through the key → slot
+ * index and updated with a few absolute writes into the mapped buffer; no
+ * part of the file is ever rewritten. The full entities still live in the
+ * snapshot and journal; after those are loaded, {@link #overlay} copies the
+ * slot values on top, so an in-place update is the newest state of its fields.
+ *
+ * File layout: [int magic][int slot width][int slot count] then the slots.
+ * Slot layout: [byte live][key, {@value #KEY_WIDTH} bytes][layout fields]
+ *
+ * @param <T> Entity type
+ */
+public class MappedRecordStore<T> {
+
+    /**
+     * Fixed-width field layout stored in each slot
+     *
+     * @param <T> Entity type
+     */
+    public interface SlotLayout<T> {
+
+        /**
+         * Get number of bytes used by the fields
+         *
+         * @return Field width in bytes
+         */
+        int width();
+
+        /**
+         * Check whether the entity's field values fit the fixed widths
+         *
+         * @param entity Entity to check
+         * @return true if the entity can be stored in a slot
+         */
+        boolean fits(T entity);
+
+        /**
+         * Write the entity's fields at the given buffer offset
+         */
+        void write(ByteBuffer buffer, int offset, T entity);
+
+        /**
+         * Copy the fields at the given buffer offset into the entity
+         */
+        void read(ByteBuffer buffer, int offset, T entity);
+    }
+
+    /** "HMSS" */
+    private static final int MAGIC = 0x484D5353;
+    private static final int HEADER_SIZE = 12;
+    private static final int KEY_WIDTH = 32;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final File file;
+    private final Function<T, String> keyFunction;
+    private final SlotLayout<T> layout;
+    private final int slotWidth;
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private RandomAccessFile raf;
+    private MappedByteBuffer buffer;
+    private int slotCount;
+    private int capacity;
+
+    /**
+     * Create a record store
+     *
+     * @param filename    Slot file path
+     * @param keyFunction Extracts the primary key of an entity
+     * @param layout      Fields stored per slot
+     */
+    public MappedRecordStore(String filename, Function<T, String> keyFunction, SlotLayout<T> layout) {
+        this.file = new File(filename);
+        this.keyFunction = keyFunction;
+        this.layout = layout;
+        this.slotWidth = 1 + KEY_WIDTH + layout.width();
+    }
+
+    /**
+     * Apply the stored fields to freshly loaded entities.
+     * Slots of entities that no longer exist are freed and entities without a
+     * slot get one, so the store matches the list afterwards. Existing slots
+     * are never moved, so a crash during this pass loses nothing.
+     *
+     * @param entities Entities loaded from snapshot and journal
+     */
+    public synchronized void overlay(List<T> entities) {
+        try {
+            open();
+            for (int slot = 0; slot < slotCount; slot++) {
+                int offset = offset(slot);
+                if (buffer.get(offset) == 0) {
+                    freeSlots.push(slot);
+                    continue;
+                }
+                Integer previous = index.put(BinaryIO.getFixedString(buffer, offset + 1), slot);
+                if (previous != null) {
+                    buffer.put(offset(previous), (byte) 0);
+                    freeSlots.push(previous);
+                }
+            }
+            Map<String, Integer> stale = new HashMap<>(index);
+            for (T entity : entities) {
+                String key = keyFunction.apply(entity);
+                Integer slot = stale.remove(key);
+                if (slot != null) {
+                    layout.read(buffer, offset(slot) + 1 + KEY_WIDTH, entity);
+                } else {
+                    put(entity);
+                }
+            }
+            for (String key : stale.keySet()) {
+                remove(key);
+            }
+            buffer.force();
+        } catch (IOException e) {
+            System.err.println("Error loading " + file + ": " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Store the fields of a new or changed entity
+     *
+     * @param entity Entity in its current state
+     * @return true if stored; false if its values do not fit a slot, in which
+     *         case any older slot for the entity is removed
+     */
+    public synchronized boolean put(T entity) {
+        String key = keyFunction.apply(entity);
+        if (buffer == null || !fits(key, entity)) {
+            remove(key);
+            return false;
+        }
+        Integer slot = index.get(key);
+        if (slot == null) {
+            slot = allocate();
+            if (slot < 0) {
+                return false;
+            }
+            int offset = offset(slot);
+            BinaryIO.putFixedString(buffer, offset + 1, KEY_WIDTH, key);
+            buffer.put(offset, (byte) 1);
+            index.put(key, slot);
+        }
+        layout.write(buffer, offset(slot) + 1 + KEY_WIDTH, entity);
+        return true;
+    }
+
+    /**
+     * Update the fields of an entity that already has a slot, in place.
+     * The change reaches the disk on the next {@link #force}.
+     *
+     * @param entity Entity in its current state
+     * @return true if updated; false if the entity has no slot or no longer fits
+     */
+    public synchronized boolean update(T entity) {
+        String key = keyFunction.apply(entity);
+        Integer slot = index.get(key);
+        if (slot == null || !fits(key, entity)) {
+            return false;
+        }
+        layout.write(buffer, offset(slot) + 1 + KEY_WIDTH, entity);
+        return true;
+    }
+
+    /**
+     * Free the slot of a deleted entity
+     *
+     * @param key Primary key of the entity
+     */
+    public synchronized void remove(String key) {
+        Integer slot = index.remove(key);
+        if (slot != null) {
+            buffer.put(offset(slot), (byte) 0);
+            freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * Check whether an entity has a slot
+     *
+     * @param key Primary key
+     * @return true if present
+     */
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Force in-place changes to disk
+     */
+    public synchronized void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Drop every slot, e.g. when all entities are replaced. The file is
+     * emptied in place rather than deleted: a mapping is only released when
+     * its buffer is garbage collected, and Windows refuses to delete a file
+     * that is still mapped.
+     *
+     * @throws IOException if the slot file cannot be opened
+     */
+    public synchronized void clear() throws IOException {
+        if (buffer == null) {
+            if (!file.exists()) {
+                return;
+            }
+            open();
+        }
+        index.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        buffer.putInt(8, 0);
+        buffer.force();
+    }
+
+    private boolean fits(String key, T entity) {
+        return BinaryIO.fitsFixed(key, KEY_WIDTH) && layout.fits(entity);
+    }
+
+    private void open() throws IOException {
+        close();
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        raf = new RandomAccessFile(file, "rw");
+        int existing = 0;
+        if (raf.length() >= HEADER_SIZE) {
+            raf.seek(0);
+            if (raf.readInt() == MAGIC && raf.readInt() == slotWidth) {
+                existing = raf.readInt();
+            }
+        }
+        long available = Math.max(0, (raf.length() - HEADER_SIZE) / slotWidth);
+        slotCount = (int) Math.min(existing, available);
+        map(Math.max(INITIAL_SLOTS, (int) available));
+    }
+
+    private void map(int slots) throws IOException {
+        capacity = slots;
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                (long) HEADER_SIZE + (long) slots * slotWidth);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, slotWidth);
+        buffer.putInt(8, slotCount);
+    }
+
+    private int allocate() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == capacity) {
+            try {
+                map(capacity * 2);
+            } catch (IOException e) {
+                System.err.println("Error growing " + file + ": " + e.getMessage());
+                return -1;
+            }
+        }
+        int slot = slotCount++;
+        buffer.putInt(8, slotCount);
+        return slot;
+    }
+
+    private int offset(int slot) {
+        return HEADER_SIZE + slot * slotWidth;
+    }
+
+    private void close() {
+        index.clear();
+        freeSlots.clear();
+        buffer = null;
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + file + ": " + e.getMessage());
+            }
+            raf = null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package utils.storage;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot file of codec-encoded records.
+ *
+ * Layout: [int magic][byte codec version] then, per record, a 1 marker byte
+ * followed by the record, and a single 0 byte at the end. Records are not
+ * counted up front so that files can be written in one streaming pass.
+ */
+public final class RecordFile {
+
+    /** "HMS1" */
+    public static final int MAGIC = 0x484D5331;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private RecordFile() {
+    }
+
+    /**
+     * Check whether a file was written by this class (as opposed to a
+     * legacy Java serialization file)
+     *
+     * @param file File to check
+     * @return true if the file starts with the record file magic
+     */
+    public static boolean isRecordFile(File file) {
+        if (!file.exists() || file.length() < 5) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write a list of records
+     *
+     * @param file     Target file
+     * @param codec    Record codec
+     * @param entities Records to write
+     */
+    public static <T> void write(File file, EntityCodec<T> codec, List<T> entities) throws IOException {
+        try (Writer<T> writer = new Writer<>(file, codec)) {
+            for (T entity : entities) {
+                writer.write(entity);
+            }
+        }
+    }
+
+    /**
+     * Read all records of a file
+     *
+     * @param file  Source file
+     * @param codec Record codec
+     * @return Records in file order
+     */
+    public static <T> List<T> read(File file, EntityCodec<T> codec) throws IOException {
+        List<T> entities = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a record file");
+            }
+            int version = in.readUnsignedByte();
+            while (in.readByte() != 0) {
+                entities.add(codec.read(in, version));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Streaming record writer, for files too large to build as a list first
+     *
+     * @param <T> Record type
+     */
+    public static class Writer<T> implements Closeable {
+        private final EntityCodec<T> codec;
+        private final DataOutputStream out;
+        private long count;
+
+        public Writer(File file, EntityCodec<T> codec) throws IOException {
+            this(openFile(file), codec);
+        }
+
+        public Writer(OutputStream stream, EntityCodec<T> codec) throws IOException {
+            this.codec = codec;
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeByte(codec.version());
+        }
+
+        private static OutputStream openFile(File file) throws IOException {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            return new FileOutputStream(file);
+        }
+
+        public void write(T entity) throws IOException {
+            out.writeByte(1);
+            codec.write(out, entity);
+            count++;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.writeByte(0);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package utils.storage;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named counters that survive restarts without a disk write per value.
+ *
+ * Values are handed out from blocks: when a counter runs past its reserved
+ * limit, the limit is raised by a whole block and the file is rewritten
+ * (temporary file, fsync, atomic rename) before the next value is returned.
+ * After a restart, or a crash, every counter resumes at its persisted limit,
+ * so a value is never handed out twice; at most the unused rest of the last
+ * block is skipped. A counter that uses up its blocks faster than one per
+ * second (a bulk import) reserves doubling blocks, so it does not pay a
+ * synced write per block. If a block cannot be persisted (disk full, no
+ * permission), the counter keeps its previous limit and no value is handed
+ * out, so nothing beyond the persisted limit is ever in use.
+ *
+ * Layout: [int magic][int count] then per counter [UTF name][long limit].
+ */
+public class SequenceFile {
+
+    /** "HMSQ" */
+    private static final int MAGIC = 0x484D5351;
+
+    // Blocks used up faster than this grow, up to MAX_GROWTH times the base size
+    private static final long FAST_RESERVE_NANOS = 1_000_000_000L;
+    private static final int MAX_GROWTH = 1024;
+
+    /**
+     * One counter
+     */
+    private static class Counter {
+        private long current;
+        private long limit;
+        private long block;
+        private long reservedAt;
+
+        Counter(long current, long limit) {
+            this.current = current;
+            this.limit = limit;
+        }
+    }
+
+    private final File file;
+    private final int blockSize;
+    private final Map<String, Counter> counters = new LinkedHashMap<>();
+
+    /**
+     * Open a sequence file, reading the persisted limits if it exists
+     *
+     * @param filename  Sequence file path
+     * @param blockSize Number of values reserved per disk write
+     */
+    public SequenceFile(String filename, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        }
+        this.file = new File(filename);
+        this.blockSize = blockSize;
+        load();
+    }
+
+    /**
+     * Get the next value of a counter
+     *
+     * @param name    Counter name
+     * @param initial Value the counter starts from if it has never been used;
+     *                the first value returned is initial + 1
+     * @return Next value
+     * @throws UncheckedIOException if a new block had to be reserved and could
+     *                              not be persisted; the counter is unchanged
+     */
+    public synchronized long next(String name, long initial) {
+        Counter counter = counters.computeIfAbsent(name, n -> new Counter(initial, initial));
+        if (counter.current >= counter.limit) {
+            long previousLimit = counter.limit;
+            long previousBlock = counter.block;
+            long previousReservedAt = counter.reservedAt;
+            long now = System.nanoTime();
+            if (counter.block > 0 && now - counter.reservedAt < FAST_RESERVE_NANOS) {
+                counter.block = Math.min(counter.block * 2, (long) blockSize * MAX_GROWTH);
+            } else {
+                counter.block = blockSize;
+            }
+            counter.reservedAt = now;
+            counter.limit = counter.current + counter.block;
+            try {
+                save();
+            } catch (IOException e) {
+                counter.limit = previousLimit;
+                counter.block = previousBlock;
+                counter.reservedAt = previousReservedAt;
+                throw new UncheckedIOException("Could not reserve values of sequence " + name, e);
+            }
+        }
+        return ++counter.current;
+    }
+
+    /**
+     * Make sure a counter never returns a value at or below a given one,
+     * e.g. one found in data written before the counter was persisted
+     *
+     * @param name    Counter name
+     * @param initial Value the counter starts from if it has never been used
+     * @param value   Highest value already in use
+     */
+    public synchronized void advanceTo(String name, long initial, long value) {
+        Counter counter = counters.computeIfAbsent(name, n -> new Counter(initial, initial));
+        if (value > counter.current) {
+            counter.current = value;
+            // Reserved on the next call to next()
+            counter.limit = Math.max(counter.limit, value);
+        }
+    }
+
+    /**
+     * Forget all counters and delete the file
+     */
+    public synchronized void reset() {
+        counters.clear();
+        file.delete();
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a sequence file");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long limit = in.readLong();
+                // Resume after the whole reserved block
+                counters.put(name, new Counter(limit, limit));
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading sequences: " + e.getMessage());
+        }
+    }
+
+    private void save() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(counters.size());
+                for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().limit);
+                }
+                out.flush();
+                stream.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package utils.storage;
+
+import models.Appointment;
+import models.Appointment.AppointmentStatus;
+import models.Bill;
+import models.Bill.BillStatus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width layouts of the fields kept in {@link MappedRecordStore} slots.
+ */
+public final class SlotLayouts {
+
+    private static final AppointmentStatus[] APPOINTMENT_STATUSES = AppointmentStatus.values();
+    private static final BillStatus[] BILL_STATUSES = BillStatus.values();
+
+    private static final int PAYMENT_METHOD_WIDTH = 16;
+
+    private SlotLayouts() {
+    }
+
+    private static void putStatus(ByteBuffer buffer, int offset, Enum<?> status) {
+        buffer.put(offset, (byte) (status == null ? -1 : status.ordinal()));
+    }
+
+    private static <E extends Enum<E>> E getStatus(ByteBuffer buffer, int offset, E[] values) {
+        int ordinal = buffer.get(offset);
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    /**
+     * Appointment: [byte status]
+     */
+    public static final MappedRecordStore.SlotLayout<Appointment> APPOINTMENT = new MappedRecordStore.SlotLayout<Appointment>() {
+        @Override
+        public int width() {
+            return 1;
+        }
+
+        @Override
+        public boolean fits(Appointment appointment) {
+            return true;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Appointment appointment) {
+            putStatus(buffer, offset, appointment.getStatus());
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, int offset, Appointment appointment) {
+            appointment.setStatus(getStatus(buffer, offset, APPOINTMENT_STATUSES));
+        }
+    };
+
+    /**
+     * Bill: [byte status][double paidAmount][date-time datePaid][paymentMethod]
+     */
+    public static final MappedRecordStore.SlotLayout<Bill> BILL = new MappedRecordStore.SlotLayout<Bill>() {
+        @Override
+        public int width() {
+            return 1 + 8 + BinaryIO.DATE_TIME_WIDTH + PAYMENT_METHOD_WIDTH;
+        }
+
+        @Override
+        public boolean fits(Bill bill) {
+            return BinaryIO.fitsFixed(bill.getPaymentMethod(), PAYMENT_METHOD_WIDTH);
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Bill bill) {
+            putStatus(buffer, offset, bill.getStatus());
+            buffer.putDouble(offset + 1, bill.getPaidAmount());
+            BinaryIO.putDateTime(buffer, offset + 9, bill.getDatePaid());
+            BinaryIO.putFixedString(buffer, offset + 9 + BinaryIO.DATE_TIME_WIDTH,
+                    PAYMENT_METHOD_WIDTH, bill.getPaymentMethod());
+        }
+
+        @Override
+        public void read(ByteBuffer buffer, int offset, Bill bill) {
+            bill.setStatus(getStatus(buffer, offset, BILL_STATUSES));
+            bill.setPaidAmount(buffer.getDouble(offset + 1));
+            bill.setDatePaid(BinaryIO.getDateTime(buffer, offset + 9));
+            bill.setPaymentMethod(BinaryIO.getFixedString(buffer, offset + 9 + BinaryIO.DATE_TIME_WIDTH));
+        }
+    };
+}
@@ -0,0 +1,194 @@
+package utils.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer that batches persistence work (group commit).
+ *
+ * Callers hand over already encoded entries and return immediately. A single
+ * writer thread waits until either the batching window has passed or enough
+ * operations have queued up, writes everything queued per target, and then
+ * syncs each target to disk once. Entries with the same key on the same target
+ * are coalesced, so a burst of edits to one entity costs one write.
+ *
+ * Every submission returns a future that completes once its batch is on disk,
+ * for callers that need durability before continuing.
+ */
+public class WriteBehindQueue {
+
+    /**
+     * Destination of queued entries
+     */
+    public interface Target {
+
+        /**
+         * Write a batch of entries, in submission order
+         *
+         * @param entries Encoded entries
+         */
+        default void write(List<byte[]> entries) throws IOException {
+        }
+
+        /**
+         * Force everything written so far to disk
+         */
+        void sync() throws IOException;
+    }
+
+    /** Queued entries of one target; entries submitted without a key are never coalesced */
+    private static class Pending {
+        private final Map<Object, byte[]> entries = new LinkedHashMap<>();
+    }
+
+    private final long windowNanos;
+    private final int maxBatchOps;
+
+    private final Object lock = new Object();
+    private Map<Target, Pending> pending = new LinkedHashMap<>();
+    private List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private int pendingOps;
+    private boolean flushRequested;
+
+    /**
+     * Create a queue and start its writer thread
+     *
+     * @param windowMillis Longest time an entry waits for its batch to fill up
+     * @param maxBatchOps  Number of queued operations that starts a write early
+     */
+    public WriteBehindQueue(long windowMillis, int maxBatchOps) {
+        if (windowMillis < 0 || maxBatchOps <= 0) {
+            throw new IllegalArgumentException("Invalid write-behind window");
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchOps = maxBatchOps;
+
+        Thread writer = new Thread(this::run, "write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                flush().get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                System.err.println("Error flushing pending writes: " + e.getMessage());
+            }
+        }, "write-behind-shutdown"));
+    }
+
+    /**
+     * Queue an entry
+     *
+     * @param target Destination
+     * @param key    Coalescing key; a later entry with the same key replaces this
+     *               one if both are still queued. Null disables coalescing.
+     * @param entry  Encoded entry
+     * @return Future completed once the entry is on disk
+     */
+    public CompletableFuture<Void> submit(Target target, Object key, byte[] entry) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            Pending queued = pending.computeIfAbsent(target, t -> new Pending());
+            queued.entries.put(key != null ? key : new Object(), entry);
+            waiters.add(future);
+            enqueued();
+        }
+        return future;
+    }
+
+    /**
+     * Queue a sync of a target that was modified in place
+     *
+     * @param target Destination
+     * @return Future completed once the target has been synced
+     */
+    public CompletableFuture<Void> sync(Target target) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            pending.computeIfAbsent(target, t -> new Pending());
+            waiters.add(future);
+            enqueued();
+        }
+        return future;
+    }
+
+    /**
+     * Write everything queued so far without waiting for the window
+     *
+     * @return Future completed once all previously queued entries are on disk
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (lock) {
+            waiters.add(future);
+            pendingOps++;
+            flushRequested = true;
+            lock.notifyAll();
+        }
+        return future;
+    }
+
+    /**
+     * Count a queued operation; the writer is only woken when it is idle or
+     * the batch is full, not on every submission
+     */
+    private void enqueued() {
+        pendingOps++;
+        if (pendingOps == 1 || pendingOps == maxBatchOps) {
+            lock.notifyAll();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Map<Target, Pending> batch;
+            List<CompletableFuture<Void>> batchWaiters;
+            try {
+                synchronized (lock) {
+                    while (pendingOps == 0) {
+                        lock.wait();
+                    }
+                    long deadline = System.nanoTime() + windowNanos;
+                    long remaining;
+                    while (!flushRequested && pendingOps < maxBatchOps
+                            && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                    batch = pending;
+                    batchWaiters = waiters;
+                    pending = new LinkedHashMap<>();
+                    waiters = new ArrayList<>();
+                    pendingOps = 0;
+                    flushRequested = false;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            IOException failure = null;
+            for (Map.Entry<Target, Pending> entry : batch.entrySet()) {
+                try {
+                    List<byte[]> entries = new ArrayList<>(entry.getValue().entries.values());
+                    if (!entries.isEmpty()) {
+                        entry.getKey().write(entries);
+                    }
+                    entry.getKey().sync();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Error writing batch: " + e.getMessage());
+                    failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                }
+            }
+            for (CompletableFuture<Void> waiter : batchWaiters) {
+                if (failure == null) {
+                    waiter.complete(null);
+                } else {
+                    waiter.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+}